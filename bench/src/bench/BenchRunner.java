@@ -0,0 +1,36 @@
+package src.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler attached.
+ *
+ * Besides the time per operation, the profiler reports the bytes
+ * allocated per operation (gc.alloc.rate.norm), which is the number
+ * to watch for allocation-free code paths.
+ */
+public final class BenchRunner {
+
+    /** Hidden constructor. */
+    private BenchRunner() {
+    }
+
+    /**
+     * Run every benchmark, or those matching a regular expression.
+     *
+     * @param args optional benchmark name pattern
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(final String[] args) throws RunnerException {
+        String include = (args.length > 0) ? args[0] : "src\\.bench\\..*";
+        Options options = new OptionsBuilder()
+            .include(include)
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,129 @@
+package src.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.Board;
+import src.Move;
+import src.MoveList;
+import src.Piece;
+import src.Position;
+
+/**
+ * Benchmarks of the Board operations used by the game and the AI.
+ *
+ * Each benchmark runs on a quiet opening position and on a busy
+ * middlegame one, where pins and checks are much more common.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBench {
+
+    /** Position to be benchmarked. */
+    @Param({Positions.START, Positions.KIWIPETE})
+    private String fen;
+
+    /** The board under test. */
+    private Board board;
+
+    /** A legal move of the side to move. */
+    private Move legal;
+
+    /**
+     * Set up the board.
+     */
+    @Setup
+    public void setup() {
+        board = Board.fromFen(fen);
+        Piece.Side side = board.sideToMove();
+        legal = board.allMoves(side, true).iterator().next();
+    }
+
+    /**
+     * Copy the board, as the AI does for every move it tries.
+     *
+     * @return the copy
+     */
+    @Benchmark
+    public Board copy() {
+        return board.copy();
+    }
+
+    /**
+     * Generate every legal move.
+     *
+     * @return the moves
+     */
+    @Benchmark
+    public MoveList allMoves() {
+        return board.allMoves(board.sideToMove(), true);
+    }
+
+    /**
+     * Generate every move without testing for check.
+     *
+     * @return the moves
+     */
+    @Benchmark
+    public MoveList allMovesUnchecked() {
+        return board.allMoves(board.sideToMove(), false);
+    }
+
+    /**
+     * Test the side to move for check.
+     *
+     * @return true if in check
+     */
+    @Benchmark
+    public Boolean check() {
+        return board.check(board.sideToMove());
+    }
+
+    /**
+     * Test the side to move for checkmate.
+     *
+     * @return true if mated
+     */
+    @Benchmark
+    public Boolean checkmate() {
+        return board.checkmate(board.sideToMove());
+    }
+
+    /**
+     * Add a move to a fresh list that tests it for check, which
+     * includes working out the pins for the position.
+     *
+     * @return the list
+     */
+    @Benchmark
+    public MoveList addCapture() {
+        MoveList list = new MoveList(board, true);
+        list.addCapture(new Move(legal.getOrigin(), legal.getDest()));
+        return list;
+    }
+
+    /**
+     * Look up a square, for comparison with the operations above.
+     *
+     * @return the piece on e1
+     */
+    @Benchmark
+    public Piece getPiece() {
+        return board.getPiece(Position.of(4, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package src.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.Board;
+import src.engine.Evaluation;
+import src.engine.Kernels;
+import src.engine.MobilityEvaluation;
+
+/**
+ * The mobility evaluation on the scalar and the Vector API kernels,
+ * against the plain evaluation from the Board's incremental sums.
+ *
+ * The fork is started with the jdk.incubator.vector module, and the
+ * bench module has the vector source root on its runtime class path,
+ * so that VectorDot can be loaded.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class EvalBench {
+
+    /** Position to be evaluated. */
+    @Param({Positions.START, Positions.KIWIPETE})
+    private String fen;
+
+    /** The position. */
+    private Board board;
+
+    /** Evaluator on the scalar kernel. */
+    private MobilityEvaluation scalar;
+
+    /** Evaluator on the Vector API kernel. */
+    private MobilityEvaluation vector;
+
+    /**
+     * Set up the board and the evaluators.
+     */
+    @Setup
+    public void setup() {
+        board = Board.fromFen(fen);
+        scalar = new MobilityEvaluation(Kernels.scalar());
+        vector = new MobilityEvaluation(Kernels.vector());
+    }
+
+    /**
+     * Evaluate from the incrementally updated sums alone.
+     *
+     * @return the score
+     */
+    @Benchmark
+    public int incremental() {
+        return Evaluation.evaluate(board);
+    }
+
+    /**
+     * Evaluate mobility and king attacks with the scalar kernel.
+     *
+     * @return the score
+     */
+    @Benchmark
+    public int scalar() {
+        return scalar.evaluate(board);
+    }
+
+    /**
+     * Evaluate mobility and king attacks with the Vector API kernel.
+     *
+     * @return the score
+     */
+    @Benchmark
+    public int vector() {
+        return vector.evaluate(board);
+    }
+}
@@ -0,0 +1,73 @@
+package src.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.Bitboards;
+import src.Board;
+import src.IntMove;
+import src.MoveList;
+import src.Piece;
+
+/**
+ * Benchmarks of each piece's own move generator, Piece.getMoves().
+ *
+ * The first white piece of the requested type in the middlegame
+ * position is used, since every type has some freedom there.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBench {
+
+    /** Piece to be benchmarked, by name. */
+    @Param({"Pedone", "Cavallo", "Alfiere", "Torre", "Regina", "Re"})
+    private String piece;
+
+    /** Whether moves leaving the king in check are filtered out. */
+    @Param({"true", "false"})
+    private boolean checkCheck;
+
+    /** The piece under test. */
+    private Piece subject;
+
+    /**
+     * Find the piece on the board.
+     */
+    @Setup
+    public void setup() {
+        Board board = Board.fromFen(Positions.KIWIPETE);
+        for (int type = Piece.PEDONE; type <= Piece.RE; type++) {
+            if (IntMove.name(type).equals(piece)) {
+                long bb = board.pieces(Piece.Side.WHITE, type);
+                subject = board.getPiece(Bitboards.first(bb));
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Unknown piece: " + piece);
+    }
+
+    /**
+     * Generate the piece's moves.
+     *
+     * @return the moves
+     */
+    @Benchmark
+    public MoveList getMoves() {
+        return subject.getMoves(checkCheck);
+    }
+}
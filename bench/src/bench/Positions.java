@@ -0,0 +1,19 @@
+package src.bench;
+
+/**
+ * Positions shared by the benchmarks.
+ */
+final class Positions {
+
+    /** The standard starting position. */
+    static final String START =
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** A middlegame full of pins, checks and captures. */
+    static final String KIWIPETE =
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    /** Hidden constructor. */
+    private Positions() {
+    }
+}
@@ -0,0 +1,112 @@
+package src.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import src.Board;
+import src.engine.LazySmp;
+import src.engine.SearchPlayer;
+import src.engine.TranspositionTable;
+import src.engine.YbwSearch;
+
+/**
+ * Time to depth of the parallel searches by number of threads.
+ *
+ * Every invocation searches from an empty table, so the times compare
+ * how quickly each search and thread count reaches the same depth. Run
+ * with "-p threads=1,2,4,8,16,32" to go up to the host's core count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SmpBench {
+
+    /** Position to be searched. */
+    @Param({Positions.START, Positions.KIWIPETE})
+    private String fen;
+
+    /** Number of search threads. */
+    @Param({"1", "2", "4", "8"})
+    private int threads;
+
+    /** Parallel search to use. */
+    @Param({"LAZY_SMP", "YOUNG_BROTHERS_WAIT"})
+    private SearchPlayer.Parallel mode;
+
+    /** Depth to search to. */
+    @Param({"9"})
+    private int depth;
+
+    /** Table, cleared before each search. */
+    private TranspositionTable table;
+
+    /** Workers of the fork/join search. */
+    private ForkJoinPool pool;
+
+    /** The Lazy SMP search under test. */
+    private LazySmp smp;
+
+    /** The fork/join search under test. */
+    private YbwSearch ybw;
+
+    /**
+     * Allocate the table and the workers.
+     */
+    @Setup(Level.Trial)
+    public void allocate() {
+        table = new TranspositionTable(64);
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Stop the workers.
+     */
+    @TearDown(Level.Trial)
+    public void release() {
+        pool.shutdown();
+    }
+
+    /**
+     * Set up a fresh search from an empty table.
+     */
+    @Setup(Level.Invocation)
+    public void setup() {
+        table.clear();
+        Board board = Board.fromFen(fen);
+        if (mode == SearchPlayer.Parallel.YOUNG_BROTHERS_WAIT) {
+            ybw = new YbwSearch(board, table, pool);
+        } else {
+            smp = new LazySmp(board, table, threads);
+        }
+    }
+
+    /**
+     * Search to the given depth.
+     *
+     * @return best move found
+     */
+    @Benchmark
+    public int timeToDepth() {
+        if (mode == SearchPlayer.Parallel.YOUNG_BROTHERS_WAIT) {
+            return ybw.run(depth, 0);
+        }
+        return smp.run(depth, 0);
+    }
+}
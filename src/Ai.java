@@ -12,6 +12,12 @@ public class Ai implements Player {
 
     private Piece.Side currentSide;
 
+    /** The board as it was when the turn began. */
+    private BoardSnapshot view;
+
+    /** The board the turn is played on. */
+    private Board board;
+
     private final Game game;
 
     public Ai(Game game) {
@@ -27,6 +33,8 @@ public class Ai implements Player {
         game.setStatus("Strategy: " + (strategy ? "attack" : "defense"));
 
         currentSide = side;
+        view = game.getSnapshot();
+        this.board = board;
 
         MoveList availableMoves = board.allMoves(currentSide, true);
 
@@ -44,9 +52,9 @@ public class Ai implements Player {
     private Move defenseMove(MoveList availableMoves) {
         Random random = new Random();
 
-        // 1. Cattura un pezzo dell'avversario se possibile
+        // 1. Cattura un pezzo dell'avversario se non si perde materiale
         for (Move move : availableMoves) {
-            if ( !game.getBoard().isFree(move.getDest()) ) {
+            if ( !view.isFree(move.getDest()) && isSafe(move) ) {
                 return move;
             }
         }
@@ -55,7 +63,19 @@ public class Ai implements Player {
         // o muove casualmente (30%)
         if (random.nextInt(100) < DEFENSE_PERCENTAGE) {
             MoveList nonCaptureMoves = getNonCaptureMoves(availableMoves);
-            return getRandomMove(nonCaptureMoves);
+            MoveList safeMoves = new MoveList(null, false);
+            for (Move move : nonCaptureMoves) {
+                if (isSafe(move)) {
+                    safeMoves.add(move);
+                }
+            }
+            if (!safeMoves.isEmpty()) {
+                return getRandomMove(safeMoves);
+            }
+            if (!nonCaptureMoves.isEmpty()) {
+                return getRandomMove(nonCaptureMoves);
+            }
+            return getRandomMove(availableMoves);
         } else {
             return getRandomMove(availableMoves);
         }
@@ -67,7 +87,7 @@ public class Ai implements Player {
 
         // 1. Cattura un pezzo dell'avversario se possibile
         for (Move move : availableMoves) {
-            if ( !game.getBoard().isFree(move.getDest()) ) {
+            if ( !view.isFree(move.getDest()) ) {
                 return move;
             }
         }
@@ -85,7 +105,7 @@ public class Ai implements Player {
 
 
     private Move getKingProximityMove(MoveList moves) {
-        Position enemyKing = game.getBoard().findKing(currentSide.opposite());
+        Position enemyKing = view.findKing(currentSide.opposite());
 
         if (enemyKing == null) {
             return null;
@@ -107,7 +127,7 @@ public class Ai implements Player {
     }
 
     private Move getQueenProximityMove(MoveList moves) {
-        Position enemyQueen = game.getBoard().findQueen(currentSide.opposite());
+        Position enemyQueen = view.findQueen(currentSide.opposite());
 
         if (enemyQueen == null) {
             return null;
@@ -138,15 +158,26 @@ public class Ai implements Player {
 
 
     private MoveList getNonCaptureMoves(MoveList moves) {
-        MoveList nonCaptureMoves = new MoveList(game.getBoard());
+        MoveList nonCaptureMoves = new MoveList(null, false);
         for (Move move : moves) {
-            if ( game.getBoard().isFree(move.getDest()) ) {
+            if ( view.isFree(move.getDest()) ) {
                 nonCaptureMoves.add(move);
             }
         }
         return nonCaptureMoves;
     }
 
+    /**
+     * Determine if a move does not lose material to the captures that
+     * can follow on its destination square.
+     *
+     * @param move the move
+     * @return     true if static exchange evaluation is not negative
+     */
+    private boolean isSafe(final Move move) {
+        return board.see(IntMove.encode(move)) >= 0;
+    }
+
     private Move getRandomMove(MoveList moves) {
         Random random = new Random();
 
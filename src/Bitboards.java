@@ -0,0 +1,458 @@
+package src;
+
+/**
+ * Bitboard helpers.
+ *
+ * A bitboard is a long where each bit stands for one square of the
+ * board. Squares are numbered from 0 (a1, the white queenside rook)
+ * to 63 (h8), rank by rank, so the square of (x, y) is y * 8 + x.
+ *
+ * Sliding piece attacks are looked up in magic bitboard tables: the
+ * relevant blockers of a square are multiplied by a magic number so
+ * that their index bits land in the top of the product, which is then
+ * used as an index into a table of precomputed attack sets. The magic
+ * numbers were found by a random search; the tables are filled in
+ * when the class is loaded.
+ */
+public final class Bitboards {
+
+    /** Number of squares on the board. */
+    public static final int SQUARES = 64;
+
+    /** The a file. */
+    public static final long FILE_A = 0x0101010101010101L;
+
+    /** The h file. */
+    public static final long FILE_H = FILE_A << 7;
+
+    /** The first rank. */
+    public static final long RANK_1 = 0xFFL;
+
+    /** The eighth rank. */
+    public static final long RANK_8 = RANK_1 << 56;
+
+    /** Rook directions as {dx, dy} pairs. */
+    private static final int[][] ROOK_DIRS = {
+        {1, 0}, {-1, 0}, {0, 1}, {0, -1}
+    };
+
+    /** Bishop directions as {dx, dy} pairs. */
+    private static final int[][] BISHOP_DIRS = {
+        {1, 1}, {-1, 1}, {1, -1}, {-1, -1}
+    };
+
+    /** Knight jumps as {dx, dy} pairs. */
+    private static final int[][] KNIGHT_JUMPS = {
+        {1, 2}, {2, 1}, {-2, 1}, {-2, -1}, {2, -1}, {1, -2}, {-1, -2}, {-1, 2}
+    };
+
+    /** King steps as {dx, dy} pairs. */
+    private static final int[][] KING_STEPS = {
+        {1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {-1, 1}, {1, -1}, {-1, -1}
+    };
+
+    /** Knight attacks from each square. */
+    private static final long[] KNIGHT_ATTACKS = new long[SQUARES];
+
+    /** King attacks from each square. */
+    private static final long[] KING_ATTACKS = new long[SQUARES];
+
+    /** Pawn attacks from each square, indexed by side and square. */
+    private static final long[][] PAWN_ATTACKS = new long[2][SQUARES];
+
+    /** Squares strictly between two squares on a common line. */
+    private static final long[][] BETWEEN = new long[SQUARES][SQUARES];
+
+    /** The whole line through two squares, if they share one. */
+    private static final long[][] LINE = new long[SQUARES][SQUARES];
+
+    /** Relevant blocker squares for a rook on each square. */
+    private static final long[] ROOK_MASK = new long[SQUARES];
+
+    /** Magic multipliers for the rook tables. */
+    private static final long[] ROOK_MAGIC = {
+        0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL,
+        0x8880041000800800L, 0x1200100201200804L, 0x0200020004011008L,
+        0x2180010000800600L, 0x0200005088210204L, 0x0000800080204001L,
+        0x1000804000802001L, 0x8240801000200080L, 0x8611001004200900L,
+        0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L,
+        0x8020802300104280L, 0x0080004000402000L, 0xE010104000402000L,
+        0x0800808010002000L, 0xA280210008100100L, 0x0001818014000800L,
+        0xA002010100080400L, 0x0008040088020130L, 0x0001020004048845L,
+        0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L,
+        0x0200080080100080L, 0x8083080100100500L, 0x4406000901000400L,
+        0x0005020080800100L, 0x0090204200008114L, 0x0010400094800420L,
+        0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+        0x4540040080800800L, 0x0000800400800200L, 0x9281800100808200L,
+        0x8004048102000854L, 0x4420802040008006L, 0x0880500020004002L,
+        0x0801200241050010L, 0x8400080010008080L, 0x0008000500090010L,
+        0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+        0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L,
+        0x001B080080900080L, 0x001A002008100600L, 0x0004008004020080L,
+        0x5181000600040300L, 0x0000044401128A00L, 0x8044110480002441L,
+        0x1023012082044112L, 0x00804080200A0012L, 0x000420310A004A42L,
+        0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL,
+        0x0000019025040042L
+    };
+
+    /** Index shifts for the rook tables. */
+    private static final int[] ROOK_SHIFT = new int[SQUARES];
+
+    /** Rook attack sets, indexed by square and magic index. */
+    private static final long[][] ROOK_TABLE = new long[SQUARES][];
+
+    /** Relevant blocker squares for a bishop on each square. */
+    private static final long[] BISHOP_MASK = new long[SQUARES];
+
+    /** Magic multipliers for the bishop tables. */
+    private static final long[] BISHOP_MAGIC = {
+        0x1010220204082A00L, 0x80E0020202002804L, 0x2008480104200020L,
+        0x000220920280002DL, 0x32040421000B0284L, 0x1002080404000400L,
+        0x0004160892080040L, 0x2203024206204201L, 0x0002404264010200L,
+        0x1120908408428124L, 0xB100424403002280L, 0x240008060440C288L,
+        0x2040040420490400L, 0x0100620210040022L, 0x0400084104202028L,
+        0x0010050080908820L, 0x0C90A04490824802L, 0x000200A008210130L,
+        0x0C08001000204010L, 0x0008000186014480L, 0x0601044820080021L,
+        0x0002000101013100L, 0x1400A08108080204L, 0x0250401104485410L,
+        0x4820240810142843L, 0x0009142A20182200L, 0x0848140048440020L,
+        0x2020120000400440L, 0x0108840200802003L, 0x0009070082009492L,
+        0x020C0C0038424245L, 0xCA44005808210410L, 0x8011212000500404L,
+        0x2028840510101008L, 0x0004042A00041400L, 0x0624020080980080L,
+        0x1820410040840040L, 0x2201004202050100L, 0x402A088A24040224L,
+        0x0242061040002400L, 0x90020202400821A0L, 0x00C9009004E01002L,
+        0x58C2060202023100L, 0x0000012214040800L, 0x0210846810100200L,
+        0x0004208081010200L, 0x01A4108404442100L, 0x8054082C80280106L,
+        0x0004144904104208L, 0x00324C0A11104000L, 0x1000020231040100L,
+        0x2080001042020004L, 0x0544021020288104L, 0x1103501408083020L,
+        0x4010451004960002L, 0x003010091C44902CL, 0x0102402884202000L,
+        0x0480804C00841086L, 0x04602C8602210400L, 0x0000004000420200L,
+        0x0040000020442C18L, 0x4483804089094100L, 0x80000B0248020400L,
+        0x0045010808008680L
+    };
+
+    /** Index shifts for the bishop tables. */
+    private static final int[] BISHOP_SHIFT = new int[SQUARES];
+
+    /** Bishop attack sets, indexed by square and magic index. */
+    private static final long[][] BISHOP_TABLE = new long[SQUARES][];
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            initMagic(sq, ROOK_DIRS, ROOK_MASK, ROOK_MAGIC, ROOK_SHIFT,
+                      ROOK_TABLE);
+            initMagic(sq, BISHOP_DIRS, BISHOP_MASK, BISHOP_MAGIC,
+                      BISHOP_SHIFT, BISHOP_TABLE);
+        }
+        for (int sq = 0; sq < SQUARES; sq++) {
+            KNIGHT_ATTACKS[sq] = steps(sq, KNIGHT_JUMPS);
+            KING_ATTACKS[sq] = steps(sq, KING_STEPS);
+            PAWN_ATTACKS[0][sq] = steps(sq, new int[][] {{-1, 1}, {1, 1}});
+            PAWN_ATTACKS[1][sq] = steps(sq, new int[][] {{-1, -1}, {1, -1}});
+        }
+        for (int a = 0; a < SQUARES; a++) {
+            for (int b = 0; b < SQUARES; b++) {
+                initLine(a, b);
+            }
+        }
+    }
+
+    /** Hidden constructor. */
+    private Bitboards() {
+    }
+
+    /**
+     * Rook attacks from a square.
+     *
+     * @param sq  square index of the rook
+     * @param occ occupancy bitboard
+     * @return    attacked squares, including the first blocker each way
+     */
+    public static long rookAttacks(final int sq, final long occ) {
+        int index = (int) (((occ & ROOK_MASK[sq]) * ROOK_MAGIC[sq])
+                           >>> ROOK_SHIFT[sq]);
+        return ROOK_TABLE[sq][index];
+    }
+
+    /**
+     * Bishop attacks from a square.
+     *
+     * @param sq  square index of the bishop
+     * @param occ occupancy bitboard
+     * @return    attacked squares, including the first blocker each way
+     */
+    public static long bishopAttacks(final int sq, final long occ) {
+        int index = (int) (((occ & BISHOP_MASK[sq]) * BISHOP_MAGIC[sq])
+                           >>> BISHOP_SHIFT[sq]);
+        return BISHOP_TABLE[sq][index];
+    }
+
+    /**
+     * Queen attacks from a square.
+     *
+     * @param sq  square index of the queen
+     * @param occ occupancy bitboard
+     * @return    attacked squares, including the first blocker each way
+     */
+    public static long queenAttacks(final int sq, final long occ) {
+        return rookAttacks(sq, occ) | bishopAttacks(sq, occ);
+    }
+
+    /**
+     * Knight attacks from a square.
+     *
+     * @param sq square index of the knight
+     * @return   attacked squares
+     */
+    public static long knightAttacks(final int sq) {
+        return KNIGHT_ATTACKS[sq];
+    }
+
+    /**
+     * King attacks from a square.
+     *
+     * @param sq square index of the king
+     * @return   attacked squares
+     */
+    public static long kingAttacks(final int sq) {
+        return KING_ATTACKS[sq];
+    }
+
+    /**
+     * Pawn captures from a square.
+     *
+     * @param side side of the pawn
+     * @param sq   square index of the pawn
+     * @return     attacked squares
+     */
+    public static long pawnAttacks(final Piece.Side side, final int sq) {
+        return PAWN_ATTACKS[side.index()][sq];
+    }
+
+    /**
+     * Squares strictly between two squares, if they share a rank, file
+     * or diagonal.
+     *
+     * @param a first square index
+     * @param b second square index
+     * @return  squares in between, or empty
+     */
+    public static long between(final int a, final int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * The full rank, file or diagonal through two squares.
+     *
+     * @param a first square index
+     * @param b second square index
+     * @return  squares on the line, or empty if not aligned
+     */
+    public static long line(final int a, final int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Get the square index of the given coordinates.
+     *
+     * @param x horizontal part of the position
+     * @param y vertical part of the position
+     * @return  square index
+     */
+    public static int square(final int x, final int y) {
+        return y * 8 + x;
+    }
+
+    /**
+     * Get the square index of the given position.
+     *
+     * @param pos position on the board
+     * @return    square index
+     */
+    public static int square(final Position pos) {
+        return pos.getSquare();
+    }
+
+    /**
+     * Get the file (x coordinate) of a square.
+     *
+     * @param sq square index
+     * @return   the file
+     */
+    public static int file(final int sq) {
+        return sq & 7;
+    }
+
+    /**
+     * Get the rank (y coordinate) of a square.
+     *
+     * @param sq square index
+     * @return   the rank
+     */
+    public static int rank(final int sq) {
+        return sq >>> 3;
+    }
+
+    /**
+     * Get the bitboard with only the given square set.
+     *
+     * @param sq square index
+     * @return   single bit bitboard
+     */
+    public static long bit(final int sq) {
+        return 1L << sq;
+    }
+
+    /**
+     * Get the lowest square set in the bitboard.
+     *
+     * @param bb non-empty bitboard
+     * @return   square index
+     */
+    public static int first(final long bb) {
+        return Long.numberOfTrailingZeros(bb);
+    }
+
+    /**
+     * Count the squares set in the bitboard.
+     *
+     * @param bb bitboard
+     * @return   number of squares
+     */
+    public static int count(final long bb) {
+        return Long.bitCount(bb);
+    }
+
+    /**
+     * Get the shared Position for the given square.
+     *
+     * @param sq square index
+     * @return   board position
+     */
+    public static Position position(final int sq) {
+        return Position.of(sq);
+    }
+
+    /**
+     * Compute the squares reached by single steps from a square.
+     *
+     * @param sq    square index
+     * @param steps steps as {dx, dy} pairs
+     * @return      squares reached on the board
+     */
+    private static long steps(final int sq, final int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int x = file(sq) + step[0];
+            int y = rank(sq) + step[1];
+            if (x >= 0 && y >= 0 && x < 8 && y < 8) {
+                attacks |= bit(square(x, y));
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Fill the BETWEEN and LINE entries for a pair of squares.
+     *
+     * @param a first square index
+     * @param b second square index
+     */
+    private static void initLine(final int a, final int b) {
+        for (int[][] dirs : new int[][][] {ROOK_DIRS, BISHOP_DIRS}) {
+            for (int[] dir : dirs) {
+                int[][] ray = {dir};
+                if ((slide(a, 0, ray) & bit(b)) != 0) {
+                    int[][] back = {{-dir[0], -dir[1]}};
+                    BETWEEN[a][b] = slide(a, bit(b), ray) & ~bit(b);
+                    LINE[a][b] = slide(a, 0, ray) | slide(a, 0, back) | bit(a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute slider attacks by walking the rays, the slow way.
+     *
+     * @param sq   square index of the slider
+     * @param occ  occupancy bitboard
+     * @param dirs ray directions
+     * @return     attacked squares
+     */
+    private static long slide(final int sq, final long occ,
+                              final int[][] dirs) {
+        long attacks = 0;
+        for (int[] dir : dirs) {
+            int x = file(sq) + dir[0];
+            int y = rank(sq) + dir[1];
+            while (x >= 0 && y >= 0 && x < 8 && y < 8) {
+                long b = bit(square(x, y));
+                attacks |= b;
+                if ((occ & b) != 0) {
+                    break;
+                }
+                x += dir[0];
+                y += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Squares whose occupancy matters to a slider: the empty board
+     * rays, minus the last square of each ray.
+     *
+     * @param sq   square index of the slider
+     * @param dirs ray directions
+     * @return     blocker mask
+     */
+    private static long blockerMask(final int sq, final int[][] dirs) {
+        long mask = 0;
+        for (int[] dir : dirs) {
+            int x = file(sq) + dir[0];
+            int y = rank(sq) + dir[1];
+            while (x + dir[0] >= 0 && y + dir[1] >= 0 &&
+                   x + dir[0] < 8 && y + dir[1] < 8) {
+                mask |= bit(square(x, y));
+                x += dir[0];
+                y += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Fill the magic attack table of one square.
+     *
+     * @param sq     square index
+     * @param dirs   ray directions of the slider
+     * @param masks  blocker masks to fill
+     * @param magics magic numbers for each square
+     * @param shifts index shifts to fill
+     * @param tables attack tables to fill
+     */
+    private static void initMagic(final int sq, final int[][] dirs,
+                                  final long[] masks, final long[] magics,
+                                  final int[] shifts, final long[][] tables) {
+        long mask = blockerMask(sq, dirs);
+        int bits = count(mask);
+        long[] table = new long[1 << bits];
+        boolean[] used = new boolean[table.length];
+
+        /* Enumerate every blocker subset (carry-rippler) and its attacks. */
+        long subset = 0;
+        do {
+            long attacks = slide(sq, subset, dirs);
+            int index = (int) ((subset * magics[sq]) >>> (64 - bits));
+            if (used[index] && table[index] != attacks) {
+                throw new IllegalStateException("Bad magic for square " + sq);
+            }
+            used[index] = true;
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+
+        masks[sq] = mask;
+        shifts[sq] = 64 - bits;
+        tables[sq] = table;
+    }
+}
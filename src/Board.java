@@ -2,8 +2,12 @@ package src;
 
 import src.pieces.*;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Board data structure.
@@ -11,24 +15,150 @@ import java.io.Serializable;
  * After the initial setup, the board <i>must</i> only be modified
  * through move transaction. This allows undo() and copy(), which many
  * other things depends on, to work properly.
+ *
+ * Internally the position is kept as bitboards, one per piece type
+ * and side, plus an occupancy mask per side. A square array of Piece
+ * objects is kept alongside for the benefit of the Piece API, as well
+ * as a list of occupied squares per side and the square of each king.
+ * All of these are only ever changed through put() and remove(), so
+ * they cannot drift.
+ *
+ * Every move is recorded as an IntMove on a history stack, together
+ * with the piece that moved and the piece it captured, which is all
+ * that undoing it needs. move() and undo() take Move objects and are
+ * meant for players and the display; make() and unmake() work on the
+ * encoded moves directly and are meant for the engine.
+ *
+ * The encoded moves and the hash of the position before each of them
+ * are also kept by move number, from the start of the game. A copy
+ * shares these arrays with the board it was copied from instead of
+ * duplicating them, so copying does not depend on the length of the
+ * game, yet the copy still knows every earlier position (for
+ * repetitions) and move. Entries another board may be reading are
+ * never overwritten: a board about to write over one, or into arrays
+ * it borrowed, first takes a private copy of them. The copy cannot
+ * undo the moves made before it was copied; what it needs from them
+ * (castling rights in the pieces' move counters, the en passant square
+ * and the last move) is carried over directly.
+ *
+ * After each move() and undo() the board publishes an immutable
+ * BoardSnapshot, which other threads read instead of the board.
  */
 public class Board implements Serializable {
 
     @Serial
-    private static final long serialVersionUID = 244162996302362607L;
+    private static final long serialVersionUID = 3015271907415226384L;
+
+
+    /** The Piece objects, indexed by square. */
+    private Piece[] squares;
+
+    /** Bitboards indexed by Piece.index(side, type). */
+    private long[] pieces;
+
+    /** Occupancy bitboards indexed by side. */
+    private long[] sides;
+
+    /** Occupancy bitboard of both sides. */
+    private long occupied;
+
+    /** Occupied squares of each side, in no particular order. */
+    private int[][] pieceList;
+
+    /** Number of entries in each side's piece list. */
+    private int[] pieceCount;
+
+    /** Position of each occupied square within its side's piece list. */
+    private int[] listIndex;
+
+    /** Square of each side's king, or -1 if it has none. */
+    private int[] kingSquare;
+
+    /** Zobrist key of the pieces and the side to move. */
+    private long key;
+
+    /** Sum of the pieces' middlegame PieceSquare values. */
+    private int middlegame;
+
+    /** Sum of the pieces' endgame PieceSquare values. */
+    private int endgame;
+
+    /** Game phase: sum of the pieces' PieceSquare phase weights. */
+    private int phase;
+
+
+    /** Initial size of the history stacks. */
+    private static final int HISTORY = 256;
+
+    /** Number of piece types a pawn can promote to. */
+    private static final int PROMOTIONS = 4;
+
+    /** Piece values for exchange evaluation, indexed by type. */
+    private static final int[] SEE_VALUES = {100, 320, 330, 500, 900, 20000};
+
+    /** Longest capture sequence on one square. */
+    private static final int SEE_DEPTH = 32;
 
+    /** Moves of the game so far, encoded, by move number. */
+    private int[] history;
 
-    /** The internal board array. */
-    private Piece[][] board;
+    /** Hash of the position before each move of the history. */
+    private long[] keys;
 
+    /** True while history and keys belong to the board copied from. */
+    private transient boolean borrowed;
 
-    /** Moves taken in this game so far. */
+    /** Leading history entries that copies of this board may read. */
+    private transient int shared;
+
+    /** The piece that moved, for each move in the history. */
+    private Piece[] movers = new Piece[HISTORY];
+
+    /** The piece that was captured, for each move in the history. */
+    private Piece[] captures = new Piece[HISTORY];
+
+    /** Pieces created by undone promotions, kept for reuse. */
+    private Piece[] promoted = new Piece[HISTORY * PROMOTIONS];
+
+    /** Number of moves made on this board, after the inherited ones. */
+    private int ply;
+
+    /** The side whose turn it is. */
+    private Piece.Side turn = Piece.Side.WHITE;
+
+    /** En passant square of the starting position, or -1. */
+    private int startEnPassant = -1;
+
+    /** Number of moves inherited from the board this was copied from. */
+    private int base;
+
+    /** Last move made before this board was copied, or null. */
+    private Move inherited;
+
+    /** The latest published picture of this board. */
+    private volatile BoardSnapshot snapshot;
+
+    /** Move generator reused for every query on this board. */
+    private transient MoveGenerator generator;
+
+    /** Scratch list for counting moves. */
+    private transient IntMoveList scratch;
+
+    /** Scratch array of material balances for see(). */
+    private transient int[] seeGain;
+
+    /** Told of every piece put or removed, or null. Not copied. */
+    private transient PieceListener listener;
+
+    /** Moves taken in this game so far, as given to move(). */
     private final MoveList moves = new MoveList(this);
 
     /**
      * The standard chess board.
      */
     public Board() {
+        history = new int[HISTORY];
+        keys = new long[HISTORY];
         clear();
         for (int x = 0; x < 8; x++) {
             setPiece(x, 1, new Pedone(Piece.Side.WHITE));
@@ -50,6 +180,134 @@ public class Board implements Serializable {
         setPiece(3, 7, new Regina(Piece.Side.BLACK));
         setPiece(4, 0, new Re(Piece.Side.WHITE));
         setPiece(4, 7, new Re(Piece.Side.BLACK));
+        publish();
+    }
+
+    /**
+     * Create a copy of the given board's position.
+     *
+     * @param source the board to be copied
+     */
+    private Board(final Board source) {
+        squares = new Piece[Bitboards.SQUARES];
+        pieces = source.pieces.clone();
+        sides = source.sides.clone();
+        occupied = source.occupied;
+        pieceList = new int[][] {source.pieceList[0].clone(),
+                                 source.pieceList[1].clone()};
+        pieceCount = source.pieceCount.clone();
+        listIndex = source.listIndex.clone();
+        kingSquare = source.kingSquare.clone();
+        key = source.key;
+        middlegame = source.middlegame;
+        endgame = source.endgame;
+        phase = source.phase;
+        for (long bb = occupied; bb != 0; bb &= bb - 1) {
+            int sq = Bitboards.first(bb);
+            Piece p = source.squares[sq].copy();
+            squares[sq] = p;
+            p.setPosition(Bitboards.position(sq));
+            p.setBoard(this);
+        }
+        turn = source.turn;
+        startEnPassant = source.enPassant();
+        base = source.moveCount();
+        inherited = source.last();
+        history = source.history;
+        keys = source.keys;
+        borrowed = true;
+        source.shared = Math.max(source.shared, base);
+        snapshot = source.snapshot;
+    }
+
+    /**
+     * Set up a board from a position in Forsyth-Edwards Notation.
+     *
+     * The halfmove and fullmove counters, if present, are ignored.
+     *
+     * @param fen the position
+     * @return    a board with that position and an empty history
+     */
+    public static Board fromFen(final String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        String[] rows = fields[0].split("/");
+        if (fields.length < 2 || rows.length != 8) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        Board board = new Board();
+        board.clear();
+        for (int r = 0; r < 8; r++) {
+            int y = 7 - r;
+            int x = 0;
+            for (char c : rows[r].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    x += c - '0';
+                    continue;
+                }
+                int type = "pnbrqk".indexOf(Character.toLowerCase(c));
+                if (type < 0 || x >= 8) {
+                    throw new IllegalArgumentException("Bad FEN: " + fen);
+                }
+                Piece.Side side = Character.isUpperCase(c)
+                                  ? Piece.Side.WHITE : Piece.Side.BLACK;
+                Piece p = PieceFactory.create(IntMove.name(type), side);
+                if (type == Piece.PEDONE &&
+                    y != ((side == Piece.Side.WHITE) ? 1 : 6)) {
+
+                    p.incMoved();
+                }
+                board.setPiece(x++, y, p);
+            }
+        }
+
+        if ("b".equals(fields[1])) {
+            board.turn = Piece.Side.BLACK;
+            board.key ^= Zobrist.side(Piece.Side.BLACK);
+        } else if (!"w".equals(fields[1])) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        String castling = (fields.length > 2) ? fields[2] : "-";
+        board.restrictCastling(Piece.Side.WHITE, castling.indexOf('K') >= 0,
+                               castling.indexOf('Q') >= 0);
+        board.restrictCastling(Piece.Side.BLACK, castling.indexOf('k') >= 0,
+                               castling.indexOf('q') >= 0);
+        if (fields.length > 3 && !"-".equals(fields[3])) {
+            String ep = fields[3];
+            board.startEnPassant = Bitboards.square(ep.charAt(0) - 'a',
+                                                    ep.charAt(1) - '1');
+        }
+        board.publish();
+        return board;
+    }
+
+    /**
+     * Mark the king or rooks of a side as moved to take away castling
+     * rights a FEN position does not grant.
+     *
+     * @param side      side to be restricted
+     * @param kingside  true if kingside castling is allowed
+     * @param queenside true if queenside castling is allowed
+     */
+    private void restrictCastling(final Piece.Side side,
+                                  final boolean kingside,
+                                  final boolean queenside) {
+        int home = (side == Piece.Side.WHITE) ? 4 : 60;
+        Piece king = squares[home];
+        if (king == null || king.getType() != Piece.RE) {
+            return;
+        }
+        if (!kingside && !queenside) {
+            king.incMoved();
+            return;
+        }
+        Piece kingRook = squares[home + 3];
+        if (!kingside && kingRook != null) {
+            kingRook.incMoved();
+        }
+        Piece queenRook = squares[home - 4];
+        if (!queenside && queenRook != null) {
+            queenRook.incMoved();
+        }
     }
 
 
@@ -70,29 +328,149 @@ public class Board implements Serializable {
      * @return     true if board is in a state of check
      */
     public final Boolean check(final Piece.Side side) {
-        Piece.Side attacker;
-        if (side == Piece.Side.WHITE) {
-            attacker = Piece.Side.BLACK;
-        } else {
-            attacker = Piece.Side.WHITE;
-        }
-        Position kingPos = findKing(side);
-        if (kingPos == null) {
+        int king = kingSquare[side.index()];
+        if (king < 0) {
             /* no king on board, but can happen in AI evaluation */
             return false;
         }
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                Piece p = getPiece(new Position(x, y));
-                if ((p != null) &&
-                        (p.getSide() == attacker) &&
-                        p.getMoves(false).containsDest(kingPos)) {
+        return isAttacked(king, Piece.opposite(side));
+    }
 
-                    return true;
-                }
+    /**
+     * Determine if any piece of the given side attacks a square.
+     *
+     * @param sq square index to be tested
+     * @param by attacking side
+     * @return   true if the square is attacked
+     */
+    public final boolean isAttacked(final int sq, final Piece.Side by) {
+        return (attackersOf(sq) & sides[by.index()]) != 0;
+    }
+
+    /**
+     * Determine if any piece of the given side attacks a position.
+     *
+     * @param pos position to be tested
+     * @param by  attacking side
+     * @return    true if the position is attacked
+     */
+    public final boolean isAttacked(final Position pos, final Piece.Side by) {
+        return isAttacked(Bitboards.square(pos), by);
+    }
+
+    /**
+     * All pieces of either side attacking a square.
+     *
+     * @param sq square index to be tested
+     * @return   bitboard of attacking pieces
+     */
+    public final long attackersOf(final int sq) {
+        return attackersOf(sq, occupied);
+    }
+
+    /**
+     * All pieces of either side attacking a square, with the sliders
+     * seeing through the given occupancy instead of the board's own.
+     *
+     * This looks outward from the square, so no moves are generated.
+     *
+     * @param sq  square index to be tested
+     * @param occ occupancy used for slider rays
+     * @return    bitboard of attacking pieces
+     */
+    public final long attackersOf(final int sq, final long occ) {
+        int w = Piece.Side.WHITE.index() * Piece.TYPES;
+        int b = Piece.Side.BLACK.index() * Piece.TYPES;
+        long queens = pieces[w + Piece.REGINA] | pieces[b + Piece.REGINA];
+        long rooks = pieces[w + Piece.TORRE] | pieces[b + Piece.TORRE];
+        long bishops = pieces[w + Piece.ALFIERE] | pieces[b + Piece.ALFIERE];
+        return (Bitboards.pawnAttacks(Piece.Side.BLACK, sq)
+                & pieces[w + Piece.PEDONE])
+               | (Bitboards.pawnAttacks(Piece.Side.WHITE, sq)
+                  & pieces[b + Piece.PEDONE])
+               | (Bitboards.knightAttacks(sq)
+                  & (pieces[w + Piece.CAVALLO] | pieces[b + Piece.CAVALLO]))
+               | (Bitboards.kingAttacks(sq)
+                  & (pieces[w + Piece.RE] | pieces[b + Piece.RE]))
+               | (Bitboards.bishopAttacks(sq, occ) & (bishops | queens))
+               | (Bitboards.rookAttacks(sq, occ) & (rooks | queens));
+    }
+
+    /**
+     * Static exchange evaluation of a move.
+     *
+     * Plays out the captures on the destination square, each side
+     * always recapturing with its least valuable piece and stopping
+     * when recapturing would lose material, without making any moves.
+     * Sliders behind the pieces that have taken part are found by
+     * looking through the updated occupancy. Pins are not considered.
+     *
+     * @param move encoded move, legal on this board
+     * @return     material won by the moving side, in centipawns
+     */
+    public final int see(final int move) {
+        int kind = IntMove.kind(move);
+        if (kind == IntMove.CASTLE) {
+            return 0;
+        }
+        if (seeGain == null) {
+            seeGain = new int[SEE_DEPTH];
+        }
+        int[] gain = seeGain;
+        int from = IntMove.from(move);
+        int to = IntMove.to(move);
+        Piece mover = squares[from];
+        long occ = occupied ^ Bitboards.bit(from);
+        int onSquare = SEE_VALUES[mover.getType()];
+        if (kind == IntMove.EN_PASSANT) {
+            occ ^= Bitboards.bit(IntMove.victim(move));
+            gain[0] = SEE_VALUES[Piece.PEDONE];
+        } else {
+            gain[0] = (squares[to] == null) ? 0
+                      : SEE_VALUES[squares[to].getType()];
+        }
+        if (kind == IntMove.PROMOTION) {
+            onSquare = SEE_VALUES[IntMove.promotion(move)];
+            gain[0] += onSquare - SEE_VALUES[Piece.PEDONE];
+        }
+
+        Piece.Side side = mover.getSide().opposite();
+        long attackers = attackersOf(to, occ) & occ;
+        int d = 0;
+        while (d < SEE_DEPTH - 1) {
+            long mine = attackers & sides[side.index()];
+            if (mine == 0) {
+                break;
+            }
+            int type = Piece.PEDONE;
+            long candidates = mine & pieces[Piece.index(side, type)];
+            while (candidates == 0) {
+                type++;
+                candidates = mine & pieces[Piece.index(side, type)];
+            }
+            long next = occ ^ (candidates & -candidates);
+            long remaining = attackersOf(to, next) & next;
+            if (type == Piece.RE &&
+                (remaining & sides[side.opposite().index()]) != 0) {
+
+                /* the king cannot take a defended piece */
+                break;
+            }
+            int balance = onSquare - gain[d];
+            if (Math.max(-gain[d], balance) < 0) {
+                /* this capture cannot change the outcome */
+                break;
             }
+            gain[++d] = balance;
+            onSquare = SEE_VALUES[type];
+            occ = next;
+            attackers = remaining;
+            side = side.opposite();
         }
-        return false;
+        for (; d > 0; d--) {
+            gain[d - 1] = -Math.max(-gain[d - 1], gain[d]);
+        }
+        return gain[0];
     }
 
 
@@ -103,18 +481,42 @@ public class Board implements Serializable {
      * @return     the king's board position
      */
     public final Position findKing(final Piece.Side side) {
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                Position pos = new Position(x, y);
-                Piece p = getPiece(pos);
-                if (p instanceof Re &&
-                    p.getSide() == side) {
-
-                    return pos;
-                }
-            }
+        int king = kingSquare[side.index()];
+        if (king < 0) {
+            return null;
         }
-        return null;
+        return Bitboards.position(king);
+    }
+
+    /**
+     * Square of the king belonging to the given side.
+     *
+     * @param side whose king
+     * @return     the king's square index, or -1 if there is none
+     */
+    public final int kingSquare(final Piece.Side side) {
+        return kingSquare[side.index()];
+    }
+
+    /**
+     * Number of pieces the given side has on the board.
+     *
+     * @param side side to be counted
+     * @return     number of pieces
+     */
+    public final int pieceCount(final Piece.Side side) {
+        return pieceCount[side.index()];
+    }
+
+    /**
+     * Square of one of the given side's pieces.
+     *
+     * @param side  side of the piece
+     * @param index index into the side's piece list, below pieceCount()
+     * @return      square index of the piece
+     */
+    public final int pieceSquare(final Piece.Side side, final int index) {
+        return pieceList[side.index()][index];
     }
 
     /**
@@ -124,18 +526,11 @@ public class Board implements Serializable {
      * @return     the king's board position
      */
     public final Position findQueen(final Piece.Side side) {
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                Position pos = new Position(x, y);
-                Piece p = getPiece(pos);
-                if (p instanceof Regina &&
-                        p.getSide() == side) {
-
-                    return pos;
-                }
-            }
+        long bb = pieces[Piece.index(side, Piece.REGINA)];
+        if (bb == 0) {
+            return null;
         }
-        return null;
+        return Bitboards.position(Bitboards.first(bb));
     }
 
     /**
@@ -145,23 +540,30 @@ public class Board implements Serializable {
      * @return     number of moves right now
      */
     public final int moveCount(final Piece.Side side) {
-        int count = 0;
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                Piece p = getPiece(new Position(x, y));
-                if ((p != null) && (p.getSide() == side)) {
-                    count += p.getMoves(true).size();
-                }
-            }
+        if (scratch == null) {
+            scratch = new IntMoveList();
         }
-        return count;
+        scratch.clear();
+        legalMoves(side, scratch);
+        return scratch.size();
     }
 
     /**
-     * Create a new Piece array, effectively clearing the board.
+     * Create new Piece and bitboard arrays, effectively clearing the board.
      */
     public final void clear() {
-        board = new Piece[8][8];
+        squares = new Piece[Bitboards.SQUARES];
+        pieces = new long[Piece.TYPES * 2];
+        sides = new long[2];
+        occupied = 0;
+        pieceList = new int[2][Bitboards.SQUARES];
+        pieceCount = new int[2];
+        listIndex = new int[Bitboards.SQUARES];
+        kingSquare = new int[] {-1, -1};
+        key = Zobrist.side(turn);
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
     }
 
     /**
@@ -172,7 +574,7 @@ public class Board implements Serializable {
      * @param p the piece object to be placed
      */
     public final void setPiece(final int x, final int y, final Piece p) {
-        setPiece(new Position(x, y), p);
+        setPiece(Position.of(x, y), p);
     }
 
     /**
@@ -182,23 +584,101 @@ public class Board implements Serializable {
      * @param p   the piece object to be placed
      */
     public final void setPiece(final Position pos, final Piece p) {
-        board[pos.getX()][pos.getY()] = p;
+        int sq = Bitboards.square(pos);
+        remove(sq);
         if (p != null) {
+            put(sq, p);
             p.setPosition(pos);
-            p.setBoard(this);
         }
     }
+
+    /**
+     * Take the piece off a square, if there is one.
+     *
+     * @param sq square index
+     * @return   the piece that was removed, or null
+     */
+    private Piece remove(final int sq) {
+        Piece old = squares[sq];
+        if (old == null) {
+            return null;
+        }
+        long bit = Bitboards.bit(sq);
+        int s = old.getSide().index();
+        pieces[old.getIndex()] &= ~bit;
+        sides[s] &= ~bit;
+        occupied &= ~bit;
+        squares[sq] = null;
+        key ^= Zobrist.piece(old.getIndex(), sq);
+        middlegame -= PieceSquare.mg(old.getIndex(), sq);
+        endgame -= PieceSquare.eg(old.getIndex(), sq);
+        phase -= PieceSquare.phase(old.getType());
+        if (listener != null) {
+            listener.pieceRemoved(old.getIndex(), sq);
+        }
+
+        /* move the side's last list entry into the hole */
+        int last = pieceList[s][--pieceCount[s]];
+        pieceList[s][listIndex[sq]] = last;
+        listIndex[last] = listIndex[sq];
+        if (kingSquare[s] == sq) {
+            long kings = pieces[old.getIndex()];
+            kingSquare[s] = (kings == 0) ? -1 : Bitboards.first(kings);
+        }
+        return old;
+    }
+
+    /**
+     * Put a piece on an empty square.
+     *
+     * @param sq square index
+     * @param p  the piece object to be placed
+     */
+    private void put(final int sq, final Piece p) {
+        long bit = Bitboards.bit(sq);
+        int s = p.getSide().index();
+        pieces[p.getIndex()] |= bit;
+        sides[s] |= bit;
+        occupied |= bit;
+        squares[sq] = p;
+        key ^= Zobrist.piece(p.getIndex(), sq);
+        middlegame += PieceSquare.mg(p.getIndex(), sq);
+        endgame += PieceSquare.eg(p.getIndex(), sq);
+        phase += PieceSquare.phase(p.getType());
+        if (listener != null) {
+            listener.pieceAdded(p.getIndex(), sq);
+        }
+        listIndex[sq] = pieceCount[s];
+        pieceList[s][pieceCount[s]++] = sq;
+        if (p.getType() == Piece.RE) {
+            kingSquare[s] = sq;
+        }
+        p.setPosition(Bitboards.position(sq));
+        p.setBoard(this);
+    }
+
+    /**
+     * Set the listener told of every piece put on or taken off the
+     * board, by moves and undos as well as by setPiece(). There is at
+     * most one, and copies of the board do not inherit it.
+     *
+     * @param l the listener, or null for none
+     */
+    public final void setPieceListener(final PieceListener l) {
+        listener = l;
+    }
+
     /**
      * Copy this board.
      *
+     * The copy has pieces of its own, so either board can be changed
+     * without affecting the other. It shares the history of the moves
+     * made so far, which it can read but not undo.
+     *
      * @return deep copy of the board.
      */
     public final Board copy() {
-        Board fresh = new Board();
-        for (Move move : moves) {
-            fresh.move(new Move(move));
-        }
-        return fresh;
+        return new Board(this);
     }
     /**
      * Get the Piece at the given Position.
@@ -207,7 +687,47 @@ public class Board implements Serializable {
      * @return    the Piece at the position
      */
     public final Piece getPiece(final Position pos) {
-        return board[pos.getX()][pos.getY()];
+        return squares[Bitboards.square(pos)];
+    }
+
+    /**
+     * Get the Piece on the given square.
+     *
+     * @param sq square index
+     * @return   the Piece on the square
+     */
+    public final Piece getPiece(final int sq) {
+        return squares[sq];
+    }
+
+    /**
+     * Get the bitboard of the given side's pieces of one type.
+     *
+     * @param side side of the pieces
+     * @param type type index of the pieces
+     * @return     bitboard of the pieces
+     */
+    public final long pieces(final Piece.Side side, final int type) {
+        return pieces[Piece.index(side, type)];
+    }
+
+    /**
+     * Get the occupancy bitboard of one side.
+     *
+     * @param side side of the pieces
+     * @return     bitboard of all the side's pieces
+     */
+    public final long occupancy(final Piece.Side side) {
+        return sides[side.index()];
+    }
+
+    /**
+     * Get the occupancy bitboard of both sides.
+     *
+     * @return bitboard of all pieces on the board
+     */
+    public final long occupancy() {
+        return occupied;
     }
 
     /**
@@ -217,65 +737,276 @@ public class Board implements Serializable {
      */
     public final void move(final Move move) {
         moves.add(move);
+        execMove(IntMove.encode(move));
+        move.setCaptured(captures[ply - 1]);
+        publish();
+    }
+
+    /**
+     * Undo the last move made with move().
+     */
+    public final void undo() {
+        moves.pop();
+        execUndo();
+        publish();
+    }
+
+    /**
+     * Get the picture of this board published by the last move() or
+     * undo(). It is safe to call from any thread.
+     *
+     * @return the latest snapshot
+     */
+    public final BoardSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Restore a saved board, publishing a snapshot if the save has none.
+     *
+     * @param in the stream being read
+     * @throws IOException            on a read error
+     * @throws ClassNotFoundException if a saved class is missing
+     */
+    @Serial
+    private void readObject(final ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        key = Zobrist.side(turn);
+        middlegame = 0;
+        endgame = 0;
+        phase = 0;
+        for (long bb = occupied; bb != 0; bb &= bb - 1) {
+            int sq = Bitboards.first(bb);
+            Piece p = squares[sq];
+            key ^= Zobrist.piece(p.getIndex(), sq);
+            middlegame += PieceSquare.mg(p.getIndex(), sq);
+            endgame += PieceSquare.eg(p.getIndex(), sq);
+            phase += PieceSquare.phase(p.getType());
+        }
+        if (snapshot == null) {
+            publish();
+        }
+    }
+
+    /**
+     * Publish a snapshot of the current position with the next version.
+     */
+    private void publish() {
+        BoardSnapshot old = snapshot;
+        long version = (old == null) ? 0 : old.version() + 1;
+        IntMoveList legal = new IntMoveList();
+        legalMoves(turn, legal);
+        snapshot = new BoardSnapshot(this, version, legal);
+    }
+
+    /**
+     * Make an encoded move, which must be legal for this board.
+     *
+     * @param move the encoded move
+     */
+    public final void make(final int move) {
         execMove(move);
     }
 
+    /**
+     * Undo the last move made with make().
+     */
+    public final void unmake() {
+        execUndo();
+    }
+
     /**
      * Actually execute the move.
      *
-     * @param move the move
+     * @param move the encoded move
      */
-    private void execMove(final Move move) {
-        if (move == null) {
-            return;
+    private void execMove(final int move) {
+        grow();
+        record(move);
+        int from = IntMove.from(move);
+        int to = IntMove.to(move);
+        Piece mover = remove(from);
+        Piece captured = null;
+        switch (IntMove.kind(move)) {
+            case IntMove.CASTLE:
+                Piece rook = remove(IntMove.rookFrom(move));
+                put(IntMove.rookTo(move), rook);
+                rook.incMoved();
+                put(to, mover);
+                break;
+            case IntMove.EN_PASSANT:
+                captured = remove(IntMove.victim(move));
+                put(to, mover);
+                break;
+            case IntMove.PROMOTION:
+                captured = remove(to);
+                put(to, promote(move, mover.getSide()));
+                break;
+            default:
+                captured = remove(to);
+                put(to, mover);
+                break;
         }
-        Position a = move.getOrigin();
-        Position b = move.getDest();
-        if (a != null && b != null) {
-            move.setCaptured(getPiece(b));
-            setPiece(b, getPiece(a));
-            setPiece(a, null);
-            getPiece(b).setPosition(b);
-            getPiece(b).incMoved();
-        } else if (a != null && b == null) {
-            move.setCaptured(getPiece(a));
-            setPiece(a, null);
-        } else {
-            setPiece(b, PieceFactory.create(move.getReplacement(),
-                                            move.getReplacementSide()));
+        mover.incMoved();
+        turn = turn.opposite();
+        key ^= Zobrist.side(Piece.Side.BLACK);
+        movers[ply] = mover;
+        captures[ply] = captured;
+        ply++;
+    }
+
+    /**
+     * Pass the turn to the other side without moving, for null move
+     * pruning. The null move is recorded in the history like any other
+     * move, so it clears the en passant square, and must be taken back
+     * with undoNullMove() before any move made before it is undone.
+     */
+    public final void makeNullMove() {
+        grow();
+        record(IntMove.NONE);
+        turn = turn.opposite();
+        key ^= Zobrist.side(Piece.Side.BLACK);
+        ply++;
+    }
+
+    /**
+     * Take back the null move made by makeNullMove().
+     */
+    public final void undoNullMove() {
+        ply--;
+        turn = turn.opposite();
+        key ^= Zobrist.side(Piece.Side.BLACK);
+    }
+
+    /**
+     * Make room on the undo stacks for one more move.
+     */
+    private void grow() {
+        if (ply == movers.length) {
+            movers = Arrays.copyOf(movers, ply * 2);
+            captures = Arrays.copyOf(captures, ply * 2);
+            promoted = Arrays.copyOf(promoted, ply * 2 * PROMOTIONS);
         }
-        execMove(move.getNext());
     }
 
     /**
-     * Undo the last move.
+     * Add a move about to be made to the history, with the hash of the
+     * position it is made from. The arrays are copied first if they
+     * are borrowed, full, or the entry may be read by a copy.
+     *
+     * @param move the encoded move, or IntMove.NONE for a null move
      */
-    public final void undo() {
-        execUndo(moves.pop());
+    private void record(final int move) {
+        int n = base + ply;
+        if (borrowed || n < shared || n == history.length) {
+            int size = (n == history.length) ? n * 2 : history.length;
+            history = Arrays.copyOf(history, size);
+            keys = Arrays.copyOf(keys, size);
+            borrowed = false;
+            shared = 0;
+        }
+        keys[n] = hash();
+        history[n] = move;
     }
 
     /**
-     * Actually perform the undo action.
+     * Get a move of the game, including those made before this board
+     * was copied.
      *
-     * @param move the move
+     * @param number move number, from 0 to moveCount() - 1
+     * @return       the encoded move, IntMove.NONE for a null move
+     */
+    public final int moveAt(final int number) {
+        if (number < 0 || number >= moveCount()) {
+            throw new IllegalArgumentException("Bad move number: " + number);
+        }
+        return history[number];
+    }
+
+    /**
+     * Get the hash of a position of the game, including those before
+     * this board was copied.
+     *
+     * @param number move number, from 0 to moveCount(); the hash is of
+     *               the position that move was made from
+     * @return       the position's hash()
      */
-    private void execUndo(final Move move) {
-        if (move == null) {
+    public final long hashAt(final int number) {
+        if (number < 0 || number > moveCount()) {
+            throw new IllegalArgumentException("Bad move number: " + number);
+        }
+        return (number == moveCount()) ? hash() : keys[number];
+    }
+
+    /**
+     * Actually perform the undo action.
+     */
+    private void execUndo() {
+        if (ply == 0) {
             return;
         }
-        execUndo(move.getNext()); // undo in reverse
-        Position a = move.getOrigin();
-        Position b = move.getDest();
-        if (a != null && b != null) {
-            setPiece(a, getPiece(b));
-            setPiece(b, move.getCaptured());
-            getPiece(a).setPosition(a);
-            getPiece(a).decMoved();
-        } else if (a != null && b == null) {
-            setPiece(a, move.getCaptured());
-        } else {
-            setPiece(b, null);
+        ply--;
+        int move = history[base + ply];
+        Piece mover = movers[ply];
+        Piece captured = captures[ply];
+        movers[ply] = null;
+        captures[ply] = null;
+        turn = turn.opposite();
+        key ^= Zobrist.side(Piece.Side.BLACK);
+        int from = IntMove.from(move);
+        int to = IntMove.to(move);
+        Piece moved = remove(to);
+        put(from, mover);
+        mover.decMoved();
+        if (moved != mover) {
+            promoted[spareIndex(move)] = moved;
         }
+        switch (IntMove.kind(move)) {
+            case IntMove.CASTLE:
+                Piece rook = remove(IntMove.rookTo(move));
+                put(IntMove.rookFrom(move), rook);
+                rook.decMoved();
+                break;
+            case IntMove.EN_PASSANT:
+                put(IntMove.victim(move), captured);
+                break;
+            default:
+                if (captured != null) {
+                    put(to, captured);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Get the piece for a promotion, reusing the one created the last
+     * time the same promotion was undone at this ply.
+     *
+     * @param move the encoded promotion
+     * @param side side of the promoting pawn
+     * @return     the new piece
+     */
+    private Piece promote(final int move, final Piece.Side side) {
+        int index = spareIndex(move);
+        Piece spare = promoted[index];
+        if (spare != null &&
+            spare.getIndex() == Piece.index(side, IntMove.promotion(move))) {
+
+            promoted[index] = null;
+            return spare;
+        }
+        return IntMove.promote(move, side);
+    }
+
+    /**
+     * Slot of the spare promotion piece for a move at the current ply.
+     *
+     * @param move the encoded promotion
+     * @return     index into the promoted array
+     */
+    private int spareIndex(final int move) {
+        return ply * PROMOTIONS + IntMove.promotion(move) - Piece.CAVALLO;
     }
 
     /**
@@ -284,9 +1015,34 @@ public class Board implements Serializable {
      * @return the previous move
      */
     public final Move last() {
+        if (moves.isEmpty()) {
+            return inherited;
+        }
         return moves.peek();
     }
 
+    /**
+     * Square a pawn may be captured en passant on, if the last move was
+     * a pawn's two square advance.
+     *
+     * @return square index passed over by the pawn, or -1
+     */
+    public final int enPassant() {
+        if (ply == 0) {
+            return startEnPassant;
+        }
+        int move = history[base + ply - 1];
+        int from = IntMove.from(move);
+        int to = IntMove.to(move);
+        if (IntMove.kind(move) != IntMove.NORMAL ||
+            Math.abs(to - from) != 16 ||
+            squares[to].getType() != Piece.PEDONE) {
+
+            return -1;
+        }
+        return (from + to) / 2;
+    }
+
     /**
      * Return true if position has no piece on it.
      *
@@ -294,7 +1050,7 @@ public class Board implements Serializable {
      * @return    emptiness of position
      */
     public final Boolean isEmpty(final Position pos) {
-        return getPiece(pos) == null;
+        return (occupied & Bitboards.bit(Bitboards.square(pos))) == 0;
     }
 
     /**
@@ -305,11 +1061,8 @@ public class Board implements Serializable {
      * @return    emptiness of position
      */
     public final Boolean isEmpty(final Position pos, final Piece.Side side) {
-        Piece p = getPiece(pos);
-        if (p == null) {
-            return true;
-        }
-        return p.getSide() != side;
+        long bit = Bitboards.bit(Bitboards.square(pos));
+        return (sides[side.index()] & bit) == 0;
     }
 
     /**
@@ -352,24 +1105,215 @@ public class Board implements Serializable {
      * @return      list of all moves
      */
     public final MoveList allMoves(final Piece.Side side, final boolean check) {
+        if (check) {
+            return generator().generate(side);
+        }
         MoveList list = new MoveList(this, false);
-        for (int y = 0; y < 8; y++) {
-            for (int x = 0; x < 8; x++) {
-                Piece p = board[x][y];
-                if (p != null && p.getSide() == side) {
-                    list.addAll(p.getMoves(check));
-                }
-            }
+        int s = side.index();
+        for (int i = 0; i < pieceCount[s]; i++) {
+            list.addAll(squares[pieceList[s][i]].getMoves(check));
         }
         return list;
     }
 
+    /**
+     * Generate the legal moves for the given side as encoded moves.
+     *
+     * Nothing is allocated, so a search can call this at every node
+     * with the list for its ply from a MoveStack.
+     *
+     * @param side side to get moves for
+     * @param list list to be appended to
+     */
+    public final void legalMoves(final Piece.Side side,
+                                 final IntMoveList list) {
+        generator().generate(side, list);
+    }
+
+    /**
+     * Generate the legal captures and promotions of a side, or all of
+     * its moves if it is in check.
+     *
+     * @param side side to generate moves for
+     * @param list list to be appended to
+     */
+    public final void captureMoves(final Piece.Side side,
+                                   final IntMoveList list) {
+        generator().generateCaptures(side, list);
+    }
+
+    /**
+     * Generate the legal quiet moves of a side: every move captureMoves()
+     * leaves out, or nothing if the side is in check.
+     *
+     * @param side side to generate moves for
+     * @param list list to be appended to
+     */
+    public final void quietMoves(final Piece.Side side,
+                                 final IntMoveList list) {
+        generator().generateQuiets(side, list);
+    }
+
+    /**
+     * Determine if an encoded move is legal for the side to move,
+     * without generating its other moves.
+     *
+     * @param move encoded move, which may come from another position
+     * @return     true if the move can be made here
+     */
+    public final boolean isLegal(final int move) {
+        return generator().isLegal(turn, move);
+    }
+
+    /**
+     * The move generator belonging to this board.
+     *
+     * @return the board's move generator
+     */
+    private MoveGenerator generator() {
+        if (generator == null) {
+            generator = new MoveGenerator(this);
+        }
+        return generator;
+    }
+
+    /**
+     * Get the side whose turn it is on this board.
+     *
+     * @return the side to move
+     */
+    public final Piece.Side sideToMove() {
+        return turn;
+    }
+
+    /**
+     * Get the sum of the pieces' middlegame values, kept up to date as
+     * pieces move.
+     *
+     * @return white's middlegame advantage in centipawns
+     */
+    public final int middlegame() {
+        return middlegame;
+    }
+
+    /**
+     * Get the sum of the pieces' endgame values, kept up to date as
+     * pieces move.
+     *
+     * @return white's endgame advantage in centipawns
+     */
+    public final int endgame() {
+        return endgame;
+    }
+
+    /**
+     * Get the game phase of the pieces on the board.
+     *
+     * @return phase, PieceSquare.MAX_PHASE or more at the start, 0 with
+     *         only kings and pawns
+     */
+    public final int phase() {
+        return phase;
+    }
+
+    /**
+     * Get the Zobrist hash of the current position.
+     *
+     * The pieces and the side to move are kept up to date by every
+     * change to the board; the castling rights and the en passant file
+     * are derived from a handful of squares, so this is O(1). An en
+     * passant file only counts when a pawn can actually capture there,
+     * so that positions that play the same get the same hash.
+     *
+     * @return 64-bit position hash
+     */
+    public final long hash() {
+        long h = key ^ Zobrist.castling(castlingRights());
+        int ep = enPassant();
+        if (ep >= 0 && (Bitboards.pawnAttacks(turn.opposite(), ep)
+                        & pieces(turn, Piece.PEDONE)) != 0) {
+
+            h ^= Zobrist.enPassant(ep);
+        }
+        return h;
+    }
+
+    /**
+     * Get the castling rights that remain, judging by whether the kings
+     * and rooks have moved.
+     *
+     * @return combination of the Zobrist castling right flags
+     */
+    public final int castlingRights() {
+        return castlingRights(Piece.Side.WHITE, Zobrist.WHITE_KINGSIDE,
+                              Zobrist.WHITE_QUEENSIDE)
+            | castlingRights(Piece.Side.BLACK, Zobrist.BLACK_KINGSIDE,
+                             Zobrist.BLACK_QUEENSIDE);
+    }
+
+    /**
+     * Get the castling rights of one side.
+     *
+     * @param side      side to be examined
+     * @param kingside  flag for the kingside right
+     * @param queenside flag for the queenside right
+     * @return          the flags of the remaining rights
+     */
+    private int castlingRights(final Piece.Side side, final int kingside,
+                               final int queenside) {
+        int home = (side == Piece.Side.WHITE) ? 4 : 60;
+        if (kingSquare[side.index()] != home || squares[home].moved()) {
+            return 0;
+        }
+        int rights = 0;
+        if (unmovedRook(home + 3, side)) {
+            rights |= kingside;
+        }
+        if (unmovedRook(home - 4, side)) {
+            rights |= queenside;
+        }
+        return rights;
+    }
+
+    /**
+     * Determine if a square holds a rook of the side that never moved.
+     *
+     * @param sq   square index
+     * @param side side of the rook
+     * @return     true if the rook may still castle
+     */
+    private boolean unmovedRook(final int sq, final Piece.Side side) {
+        Piece p = squares[sq];
+        return p != null && p.getType() == Piece.TORRE
+            && p.getSide() == side && !p.moved();
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree, for the side to move.
+     *
+     * @param depth number of plies
+     * @return      number of leaf nodes
+     */
+    public final long perft(final int depth) {
+        return new Perft(this, true).count(depth);
+    }
+
+    /**
+     * Count the leaf nodes below each legal move of the side to move.
+     *
+     * @param depth number of plies, including the divided move
+     * @return      node count for each move, in coordinate notation
+     */
+    public final Map<String, Long> divide(final int depth) {
+        return new Perft(this, true).divide(depth);
+    }
+
     /**
      * Return the number of moves taken on this board.
      *
      * @return number of moves taken on this board
      */
     public final int moveCount() {
-        return moves.size();
+        return base + ply;
     }
 }
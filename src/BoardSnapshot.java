@@ -0,0 +1,215 @@
+package src;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * Immutable picture of a board between two moves.
+ *
+ * A Board publishes a new snapshot after every move() and undo(), with
+ * a version one higher than the previous one. Unlike the board itself,
+ * a snapshot can be read from any thread without locking or copying,
+ * so the display and the players use it to look at the game while the
+ * game thread carries on. Comparing versions tells a reader whether
+ * anything changed since it last looked.
+ */
+public final class BoardSnapshot implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 244162996302362608L;
+
+    /** Position of this snapshot in its board's sequence. */
+    private final long version;
+
+    /** Bitboards indexed by Piece.index(side, type). */
+    private final long[] pieces;
+
+    /** Occupancy bitboards indexed by side. */
+    private final long[] sides;
+
+    /** The side whose turn it is. */
+    private final Piece.Side turn;
+
+    /** Origin of the last move, or null. */
+    private final Position lastOrigin;
+
+    /** Destination of the last move, or null. */
+    private final Position lastDest;
+
+    /** Number of moves taken on the board. */
+    private final int moveCount;
+
+    /** Legal moves of the side to move, as IntMoves. */
+    private final int[] moves;
+
+    /**
+     * Take a snapshot of a board.
+     *
+     * @param board        the board, which must not change meanwhile
+     * @param boardVersion version of the new snapshot
+     * @param legal        legal moves of the side to move
+     */
+    BoardSnapshot(final Board board, final long boardVersion,
+                  final IntMoveList legal) {
+        version = boardVersion;
+        pieces = new long[Piece.TYPES * 2];
+        sides = new long[2];
+        for (Piece.Side s : Piece.Side.values()) {
+            for (int type = 0; type < Piece.TYPES; type++) {
+                pieces[Piece.index(s, type)] = board.pieces(s, type);
+            }
+            sides[s.index()] = board.occupancy(s);
+        }
+        turn = board.sideToMove();
+        Move last = board.last();
+        lastOrigin = (last == null) ? null : last.getOrigin();
+        lastDest = (last == null) ? null : last.getDest();
+        moveCount = board.moveCount();
+        moves = new int[legal.size()];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = legal.get(i);
+        }
+    }
+
+    /**
+     * Get the version of this snapshot. Later snapshots of the same
+     * board have higher versions.
+     *
+     * @return the version
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Get the piece index, Piece.index(side, type), on a square.
+     *
+     * @param sq square index
+     * @return   piece index, or -1 if the square is empty
+     */
+    public int piece(final int sq) {
+        long bit = Bitboards.bit(sq);
+        for (int i = 0; i < pieces.length; i++) {
+            if ((pieces[i] & bit) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the bitboard of the given side's pieces of one type.
+     *
+     * @param side side of the pieces
+     * @param type type index of the pieces
+     * @return     bitboard of the pieces
+     */
+    public long pieces(final Piece.Side side, final int type) {
+        return pieces[Piece.index(side, type)];
+    }
+
+    /**
+     * Get the occupancy bitboard of one side.
+     *
+     * @param side side of the pieces
+     * @return     bitboard of all the side's pieces
+     */
+    public long occupancy(final Piece.Side side) {
+        return sides[side.index()];
+    }
+
+    /**
+     * Return true if position has no piece on it.
+     *
+     * @param pos position to be tested
+     * @return    emptiness of position
+     */
+    public boolean isFree(final Position pos) {
+        return ((sides[0] | sides[1]) & Bitboards.bit(pos.getSquare())) == 0;
+    }
+
+    /**
+     * Find the king of the given side.
+     *
+     * @param side the king's side
+     * @return     position of the king, or null
+     */
+    public Position findKing(final Piece.Side side) {
+        return find(pieces(side, Piece.RE));
+    }
+
+    /**
+     * Find a queen of the given side.
+     *
+     * @param side the queen's side
+     * @return     position of a queen, or null
+     */
+    public Position findQueen(final Piece.Side side) {
+        return find(pieces(side, Piece.REGINA));
+    }
+
+    /**
+     * Position of the first square of a bitboard.
+     *
+     * @param bb the bitboard
+     * @return   the position, or null if the bitboard is empty
+     */
+    private static Position find(final long bb) {
+        return (bb == 0) ? null : Bitboards.position(Bitboards.first(bb));
+    }
+
+    /**
+     * Get the side whose turn it is.
+     *
+     * @return the side to move
+     */
+    public Piece.Side sideToMove() {
+        return turn;
+    }
+
+    /**
+     * Get the origin of the last move.
+     *
+     * @return the origin, or null before the first move
+     */
+    public Position lastOrigin() {
+        return lastOrigin;
+    }
+
+    /**
+     * Get the destination of the last move.
+     *
+     * @return the destination, or null before the first move
+     */
+    public Position lastDest() {
+        return lastDest;
+    }
+
+    /**
+     * Return the number of moves taken on the board.
+     *
+     * @return number of moves
+     */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get the number of legal moves of the side to move.
+     *
+     * @return number of moves
+     */
+    public int legalMoveCount() {
+        return moves.length;
+    }
+
+    /**
+     * Get one of the legal moves of the side to move.
+     *
+     * @param index index below legalMoveCount()
+     * @return      the move as an IntMove
+     */
+    public int legalMove(final int index) {
+        return moves[index];
+    }
+}
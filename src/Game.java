@@ -1,5 +1,6 @@
 package src;
 
+import src.engine.SearchPlayer;
 import src.gui.ChessFrame;
 
 import java.io.Serializable;
@@ -63,14 +64,14 @@ public class Game implements Runnable, Serializable {
         parent = owner;
         board = gameBoard;
         white = parent.getPlayer();
-        black = new Ai(this);
+        black = new SearchPlayer(this);
     }
 
     public Game(Game load, ChessFrame owner) {
         parent = owner;
         board = load.getBoard();
         white = parent.getPlayer();
-        black = new Ai(this);
+        black = new SearchPlayer(this);
     }
 
 
@@ -120,7 +121,10 @@ public class Game implements Runnable, Serializable {
      */
     public final void begin() {
         done = false;
-        turn = Piece.Side.BLACK;
+        /* run() hands the turn over before asking for a move, so start
+         * from the side that has just moved: a loaded game may resume
+         * with either side to move. */
+        turn = Piece.opposite(board.sideToMove());
         callGameListeners(GameEvent.TURN);
         new Thread(this).start();
     }
@@ -183,6 +187,18 @@ public class Game implements Runnable, Serializable {
         return board.copy();
     }
 
+    /**
+     * Get the latest snapshot of the game's board.
+     *
+     * Unlike getBoard() this does not copy anything and may be called
+     * from any thread.
+     *
+     * @return the board's snapshot
+     */
+    public final BoardSnapshot getSnapshot() {
+        return board.snapshot();
+    }
+
     /**
      * Add a new event listener.
      *
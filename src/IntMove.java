@@ -0,0 +1,246 @@
+package src;
+
+import src.pieces.PieceFactory;
+
+/**
+ * Compact move encoding for the engine.
+ *
+ * A move is packed into the low 16 bits of an int: the origin square
+ * in bits 0-5, the destination square in bits 6-11, the kind of move
+ * in bits 12-13 and, for promotions, the new piece in bits 14-15.
+ * This is all that is needed to make and unmake a move on a Board,
+ * so the engine never has to allocate Move objects. Conversion to and
+ * from Move happens where moves enter or leave the engine.
+ */
+public final class IntMove {
+
+    /** No move. a1a1 can never be a real move. */
+    public static final int NONE = 0;
+
+    /** A plain move or capture. */
+    public static final int NORMAL = 0;
+
+    /** Castling, encoded as the king's move. */
+    public static final int CASTLE = 1;
+
+    /** En passant capture. */
+    public static final int EN_PASSANT = 2;
+
+    /** Pawn promotion. */
+    public static final int PROMOTION = 3;
+
+    /** Piece names, indexed by type. */
+    private static final String[] NAMES = {
+        "Pedone", "Cavallo", "Alfiere", "Torre", "Regina", "Re"
+    };
+
+    /** Letters used for promotions in move strings, indexed by type. */
+    private static final String LETTERS = "pnbrqk";
+
+    /** Hidden constructor. */
+    private IntMove() {
+    }
+
+    /**
+     * Encode a plain move.
+     *
+     * @param from origin square
+     * @param to   destination square
+     * @return     encoded move
+     */
+    public static int create(final int from, final int to) {
+        return from | (to << 6);
+    }
+
+    /**
+     * Encode a move of the given kind.
+     *
+     * @param from origin square
+     * @param to   destination square
+     * @param kind NORMAL, CASTLE, EN_PASSANT or PROMOTION
+     * @return     encoded move
+     */
+    public static int create(final int from, final int to, final int kind) {
+        return from | (to << 6) | (kind << 12);
+    }
+
+    /**
+     * Encode a promotion.
+     *
+     * @param from origin square
+     * @param to   destination square
+     * @param type type index of the new piece, CAVALLO to REGINA
+     * @return     encoded move
+     */
+    public static int promotion(final int from, final int to, final int type) {
+        return create(from, to, PROMOTION) | ((type - Piece.CAVALLO) << 14);
+    }
+
+    /**
+     * Origin square of a move.
+     *
+     * @param move encoded move
+     * @return     square index
+     */
+    public static int from(final int move) {
+        return move & 63;
+    }
+
+    /**
+     * Destination square of a move.
+     *
+     * @param move encoded move
+     * @return     square index
+     */
+    public static int to(final int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * Kind of a move.
+     *
+     * @param move encoded move
+     * @return     NORMAL, CASTLE, EN_PASSANT or PROMOTION
+     */
+    public static int kind(final int move) {
+        return (move >>> 12) & 3;
+    }
+
+    /**
+     * Type of the piece a promotion creates.
+     *
+     * @param move encoded promotion
+     * @return     type index of the new piece
+     */
+    public static int promotion(final int move) {
+        return ((move >>> 14) & 3) + Piece.CAVALLO;
+    }
+
+    /**
+     * Square the rook leaves when castling.
+     *
+     * @param move encoded castling move
+     * @return     square index of the rook
+     */
+    public static int rookFrom(final int move) {
+        return (to(move) > from(move)) ? from(move) + 3 : from(move) - 4;
+    }
+
+    /**
+     * Square the rook lands on when castling.
+     *
+     * @param move encoded castling move
+     * @return     square index of the rook
+     */
+    public static int rookTo(final int move) {
+        return (to(move) > from(move)) ? from(move) + 1 : from(move) - 1;
+    }
+
+    /**
+     * Square of the pawn taken by an en passant capture.
+     *
+     * @param move encoded en passant move
+     * @return     square index of the captured pawn
+     */
+    public static int victim(final int move) {
+        return Bitboards.square(Bitboards.file(to(move)),
+                                Bitboards.rank(from(move)));
+    }
+
+    /**
+     * Name of the piece of the given type, as used by PieceFactory.
+     *
+     * @param type type index
+     * @return     piece name
+     */
+    public static String name(final int type) {
+        return NAMES[type];
+    }
+
+    /**
+     * Encode a Move, as produced by the Piece move generators.
+     *
+     * @param move the move
+     * @return     encoded move
+     */
+    public static int encode(final Move move) {
+        int from = Bitboards.square(move.getOrigin());
+        int to = Bitboards.square(move.getDest());
+        Move next = move.getNext();
+        if (next == null) {
+            return create(from, to);
+        }
+        if (next.getDest() != null) {
+            return create(from, to, CASTLE);
+        }
+        if (!next.getOrigin().equals(move.getDest())) {
+            return create(from, to, EN_PASSANT);
+        }
+        String replacement = next.getNext().getReplacement();
+        for (int type = Piece.CAVALLO; type <= Piece.REGINA; type++) {
+            if (NAMES[type].equals(replacement)) {
+                return promotion(from, to, type);
+            }
+        }
+        throw new IllegalArgumentException("Bad promotion: " + replacement);
+    }
+
+    /**
+     * Build the Move for an encoded move, before it is made.
+     *
+     * @param board the board the move will be made on
+     * @param move  encoded move
+     * @return      the equivalent Move
+     */
+    public static Move toMove(final Board board, final int move) {
+        Position origin = Bitboards.position(from(move));
+        Position dest = Bitboards.position(to(move));
+        Move result = new Move(origin, dest);
+        switch (kind(move)) {
+            case CASTLE:
+                result.setNext(new Move(Bitboards.position(rookFrom(move)),
+                                        Bitboards.position(rookTo(move))));
+                break;
+            case EN_PASSANT:
+                result.setNext(new Move(Bitboards.position(victim(move)),
+                                        null));
+                break;
+            case PROMOTION:
+                result.setNext(new Move(dest, null)); // remove the pawn
+                Move upgrade = new Move(null, dest);
+                upgrade.setReplacement(NAMES[promotion(move)]);
+                upgrade.setReplacementSide(board.getPiece(from(move)).getSide());
+                result.getNext().setNext(upgrade);    // add the new piece
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+
+    /**
+     * Create the piece a promotion turns into.
+     *
+     * @param move encoded promotion
+     * @param side side of the promoting pawn
+     * @return     the new piece
+     */
+    public static Piece promote(final int move, final Piece.Side side) {
+        return PieceFactory.create(NAMES[promotion(move)], side);
+    }
+
+    /**
+     * Convert a move to coordinate notation, such as e2e4 or e7e8q.
+     *
+     * @param move encoded move
+     * @return     move string
+     */
+    public static String toString(final int move) {
+        String s = "" + Bitboards.position(from(move))
+                   + Bitboards.position(to(move));
+        if (kind(move) == PROMOTION) {
+            s += LETTERS.charAt(promotion(move));
+        }
+        return s;
+    }
+}
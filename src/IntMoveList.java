@@ -0,0 +1,115 @@
+package src;
+
+/**
+ * Primitive list of encoded moves.
+ *
+ * This is the engine's counterpart of MoveList: moves are IntMove
+ * values held in an int array, so filling and clearing a list does
+ * not allocate anything.
+ */
+public final class IntMoveList {
+
+    /** More than the number of legal moves in any chess position. */
+    public static final int CAPACITY = 256;
+
+    /** The encoded moves. */
+    private final int[] moves = new int[CAPACITY];
+
+    /** Number of moves in the list. */
+    private int size;
+
+    /**
+     * Add a move to the end of the list.
+     *
+     * @param move encoded move
+     */
+    public void add(final int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Get the move at the given index.
+     *
+     * @param index index below size()
+     * @return      encoded move
+     */
+    public int get(final int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replace the move at the given index.
+     *
+     * @param index index below size()
+     * @param move  encoded move
+     */
+    public void set(final int index, final int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Exchange two moves.
+     *
+     * @param a index of the first move
+     * @param b index of the second move
+     */
+    public void swap(final int a, final int b) {
+        int tmp = moves[a];
+        moves[a] = moves[b];
+        moves[b] = tmp;
+    }
+
+    /**
+     * Determine if the list contains a move.
+     *
+     * @param move encoded move
+     * @return     true if present
+     */
+    public boolean contains(final int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of moves in this list.
+     *
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Determine if this list is empty.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every move, keeping the storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Convert the list into Moves for the given board.
+     *
+     * @param board board the moves belong to
+     * @return      list of Moves
+     */
+    public MoveList toMoveList(final Board board) {
+        MoveList list = new MoveList(board, false);
+        for (int i = 0; i < size; i++) {
+            list.add(IntMove.toMove(board, moves[i]));
+        }
+        return list;
+    }
+}
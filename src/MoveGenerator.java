@@ -0,0 +1,487 @@
+package src;
+
+/**
+ * Legal move generator working directly on the board's bitboards.
+ *
+ * Rather than trying each move and asking the board whether the king
+ * was left in check, the generator works out once per position which
+ * pieces are pinned to their king and which squares would resolve a
+ * check, and only emits moves that respect both. When the king is in
+ * check a separate evasion path is taken that only looks at king
+ * moves and, for a single checker, at captures and blocks.
+ *
+ * For quiescence search the generator can also emit only captures and
+ * promotions, so the quiet moves at the leaves are never generated,
+ * and for staged move picking the other moves separately, or test one
+ * move without generating the rest.
+ *
+ * Moves are emitted as IntMove values into an IntMoveList. A generator
+ * is analysed for one side of one position. It must be analysed again
+ * once the board changes.
+ */
+public final class MoveGenerator {
+
+    /** Pieces a pawn may promote to, best first. */
+    private static final int[] PROMOTIONS = {
+        Piece.REGINA, Piece.TORRE, Piece.ALFIERE, Piece.CAVALLO
+    };
+
+    /** Generate captures and promotions. */
+    private static final int TACTICAL = 1;
+
+    /** Generate the other moves. */
+    private static final int QUIET = 2;
+
+    /** Generate every move. */
+    private static final int ALL = TACTICAL | QUIET;
+
+    /** The board being examined. */
+    private final Board board;
+
+    /** The side to generate moves for. */
+    private Piece.Side side;
+
+    /** The opposing side. */
+    private Piece.Side enemy;
+
+    /** Square of the side's king, or -1 if there is none. */
+    private int king;
+
+    /** Enemy pieces giving check. */
+    private long checkers;
+
+    /** Own pieces pinned to the king. */
+    private long pinned;
+
+    /** Destinations that resolve a single check (everything otherwise). */
+    private long checkMask;
+
+    /** Squares whose pieces' moves are generated. */
+    private long origins = ~0L;
+
+    /** Moves of one piece, for testing a single move. */
+    private final IntMoveList single = new IntMoveList();
+
+    /**
+     * Create a new generator for the given board.
+     *
+     * @param source the board to generate moves on
+     */
+    public MoveGenerator(final Board source) {
+        board = source;
+    }
+
+    /**
+     * Compute the check and pin masks for one side.
+     *
+     * @param s side to be analysed
+     */
+    public void analyse(final Piece.Side s) {
+        side = s;
+        enemy = s.opposite();
+        checkers = 0;
+        pinned = 0;
+        checkMask = ~0L;
+        king = board.kingSquare(side);
+        if (king < 0) {
+            /* no king on board, but can happen in AI evaluation */
+            return;
+        }
+
+        long occ = board.occupancy();
+        long them = board.occupancy(enemy);
+        checkers = board.attackersOf(king, occ) & them;
+        if (Bitboards.count(checkers) == 1) {
+            checkMask = Bitboards.between(king, Bitboards.first(checkers))
+                        | checkers;
+        }
+
+        /* Enemy sliders that would see the king through our pieces. */
+        long queens = board.pieces(enemy, Piece.REGINA);
+        long snipers =
+            (Bitboards.rookAttacks(king, them)
+             & (board.pieces(enemy, Piece.TORRE) | queens))
+            | (Bitboards.bishopAttacks(king, them)
+               & (board.pieces(enemy, Piece.ALFIERE) | queens));
+        long own = board.occupancy(side);
+        for (; snipers != 0; snipers &= snipers - 1) {
+            int sniper = Bitboards.first(snipers);
+            long blockers = Bitboards.between(king, sniper) & occ;
+            if (Bitboards.count(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+    }
+
+    /**
+     * Generate all legal moves for a side.
+     *
+     * @param s side to generate moves for
+     * @return  list of legal moves
+     */
+    public MoveList generate(final Piece.Side s) {
+        IntMoveList list = new IntMoveList();
+        generate(s, list);
+        return list.toMoveList(board);
+    }
+
+    /**
+     * Generate all legal moves for a side as encoded moves.
+     *
+     * @param s    side to generate moves for
+     * @param list list to be appended to
+     */
+    public void generate(final Piece.Side s, final IntMoveList list) {
+        analyse(s);
+        if (checkers != 0) {
+            generateEvasions(list);
+        } else {
+            generatePieces(list, ~0L, ALL);
+            generateKing(list, ~0L);
+            generateCastles(list);
+        }
+    }
+
+    /**
+     * Generate the legal moves of a side that generateCaptures() leaves
+     * out: quiet moves other than promotions, including castling. When
+     * the side is in check there are none, since generateCaptures()
+     * already gave every evasion.
+     *
+     * @param s    side to generate moves for
+     * @param list list to be appended to
+     */
+    public void generateQuiets(final Piece.Side s, final IntMoveList list) {
+        analyse(s);
+        if (checkers == 0) {
+            generatePieces(list, ~0L, QUIET);
+            generateKing(list, ~board.occupancy());
+            generateCastles(list);
+        }
+    }
+
+    /**
+     * Determine if an encoded move is legal for a side, for instance a
+     * move from the transposition table that may belong to another
+     * position. Only the moving piece's moves are generated.
+     *
+     * @param s    side to move
+     * @param move encoded move
+     * @return     true if the move is legal in the current position
+     */
+    public boolean isLegal(final Piece.Side s, final int move) {
+        Piece p = board.getPiece(IntMove.from(move));
+        if (p == null || p.getSide() != s) {
+            return false;
+        }
+        single.clear();
+        origins = Bitboards.bit(IntMove.from(move));
+        try {
+            generate(s, single);
+        } finally {
+            origins = ~0L;
+        }
+        return single.contains(move);
+    }
+
+    /**
+     * Generate the legal captures and promotions of a side. When the
+     * side is in check every evasion is generated instead, since a
+     * quiet evasion may be the only way out.
+     *
+     * @param s    side to generate moves for
+     * @param list list to be appended to
+     */
+    public void generateCaptures(final Piece.Side s, final IntMoveList list) {
+        analyse(s);
+        if (checkers != 0) {
+            generateEvasions(list);
+        } else {
+            generatePieces(list, ~0L, TACTICAL);
+            generateKing(list, board.occupancy(enemy));
+        }
+    }
+
+    /**
+     * Determine if a move of the analysed side keeps its king safe.
+     *
+     * The move must already be a valid movement for its piece.
+     *
+     * @param move move to be tested
+     * @return     true if the move is legal
+     */
+    public boolean isLegal(final Move move) {
+        if (king < 0) {
+            return true;
+        }
+        int from = Bitboards.square(move.getOrigin());
+        int to = Bitboards.square(move.getDest());
+        if (from == king) {
+            long occ = board.occupancy() ^ Bitboards.bit(king);
+            return (board.attackersOf(to, occ) & board.occupancy(enemy)) == 0;
+        }
+        Move next = move.getNext();
+        if (next != null && next.getDest() == null &&
+            !next.getOrigin().equals(move.getDest())) {
+
+            /* en passant removes a pawn away from the destination */
+            return enPassantLegal(from, to, Bitboards.square(next.getOrigin()));
+        }
+        if (Bitboards.count(checkers) > 1) {
+            return false;
+        }
+        return (checkMask & pinMask(from) & Bitboards.bit(to)) != 0;
+    }
+
+    /**
+     * Generate the moves that get the king out of check.
+     *
+     * @param list list to be appended to
+     */
+    private void generateEvasions(final IntMoveList list) {
+        generateKing(list, ~0L);
+        if (Bitboards.count(checkers) == 1) {
+            /* capture the checker or block its line */
+            generatePieces(list, checkMask, ALL);
+        }
+    }
+
+    /**
+     * Generate the moves of every piece except the king.
+     *
+     * @param list  list to be appended to
+     * @param mask  allowed destination squares
+     * @param kinds TACTICAL, QUIET or ALL
+     */
+    private void generatePieces(final IntMoveList list, final long mask,
+                                final int kinds) {
+        long occ = board.occupancy();
+        long targets = 0;
+        if ((kinds & TACTICAL) != 0) {
+            targets |= board.occupancy(enemy);
+        }
+        if ((kinds & QUIET) != 0) {
+            targets |= ~occ;
+        }
+        targets &= mask;
+
+        long knights = board.pieces(side, Piece.CAVALLO) & ~pinned & origins;
+        for (; knights != 0; knights &= knights - 1) {
+            int from = Bitboards.first(knights);
+            addMoves(list, from, Bitboards.knightAttacks(from) & targets);
+        }
+        long queens = board.pieces(side, Piece.REGINA);
+        long diagonal = (board.pieces(side, Piece.ALFIERE) | queens) & origins;
+        for (; diagonal != 0; diagonal &= diagonal - 1) {
+            int from = Bitboards.first(diagonal);
+            long attacks = Bitboards.bishopAttacks(from, occ);
+            addMoves(list, from, attacks & targets & pinMask(from));
+        }
+        long straight = (board.pieces(side, Piece.TORRE) | queens) & origins;
+        for (; straight != 0; straight &= straight - 1) {
+            int from = Bitboards.first(straight);
+            long attacks = Bitboards.rookAttacks(from, occ);
+            addMoves(list, from, attacks & targets & pinMask(from));
+        }
+        generatePawns(list, mask, kinds);
+    }
+
+    /**
+     * Generate pawn pushes, captures, promotions and en passant.
+     *
+     * @param list  list to be appended to
+     * @param mask  allowed destination squares
+     * @param kinds TACTICAL for captures and promotions, QUIET for the
+     *              other pushes, or ALL
+     */
+    private void generatePawns(final IntMoveList list, final long mask,
+                               final int kinds) {
+        long occ = board.occupancy();
+        long them = ((kinds & TACTICAL) != 0) ? board.occupancy(enemy) : 0;
+        int up = (side == Piece.Side.WHITE) ? 8 : -8;
+        int start = (side == Piece.Side.WHITE) ? 1 : 6;
+        long last = (side == Piece.Side.WHITE) ? Bitboards.RANK_8
+                                               : Bitboards.RANK_1;
+        long pushes = 0;
+        if ((kinds & TACTICAL) != 0) {
+            pushes |= last;
+        }
+        if ((kinds & QUIET) != 0) {
+            pushes |= ~last;
+        }
+
+        long pawns = board.pieces(side, Piece.PEDONE) & origins;
+        for (; pawns != 0; pawns &= pawns - 1) {
+            int from = Bitboards.first(pawns);
+            int one = from + up;
+            if (one < 0 || one >= Bitboards.SQUARES) {
+                continue;
+            }
+            long targets = Bitboards.pawnAttacks(side, from) & them;
+            if ((occ & Bitboards.bit(one)) == 0) {
+                targets |= Bitboards.bit(one) & pushes;
+                if (Bitboards.rank(from) == start &&
+                    (occ & Bitboards.bit(one + up)) == 0) {
+
+                    targets |= Bitboards.bit(one + up) & pushes;
+                }
+            }
+            targets &= mask & pinMask(from);
+            for (; targets != 0; targets &= targets - 1) {
+                addPawnMove(list, from, Bitboards.first(targets));
+            }
+        }
+
+        int ep = board.enPassant();
+        if (ep < 0 || (kinds & TACTICAL) == 0) {
+            return;
+        }
+        int victim = ep - up;
+        Piece p = board.getPiece(victim);
+        if (p == null || p.getSide() != enemy) {
+            return;
+        }
+        long capturers = Bitboards.pawnAttacks(enemy, ep)
+                         & board.pieces(side, Piece.PEDONE) & origins;
+        for (; capturers != 0; capturers &= capturers - 1) {
+            int from = Bitboards.first(capturers);
+            if (enPassantLegal(from, ep, victim)) {
+                list.add(IntMove.create(from, ep, IntMove.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * Generate the king's single steps onto unattacked squares.
+     *
+     * @param list list to be appended to
+     * @param mask allowed destination squares
+     */
+    private void generateKing(final IntMoveList list, final long mask) {
+        if (king < 0 || (origins & Bitboards.bit(king)) == 0) {
+            return;
+        }
+        /* the king must not hide behind itself from a slider */
+        long occ = board.occupancy() ^ Bitboards.bit(king);
+        long them = board.occupancy(enemy);
+        long targets = Bitboards.kingAttacks(king) & ~board.occupancy(side)
+                       & mask;
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Bitboards.first(targets);
+            if ((board.attackersOf(to, occ) & them) == 0) {
+                addMoves(list, king, Bitboards.bit(to));
+            }
+        }
+    }
+
+    /**
+     * Generate castling moves, which are never available in check.
+     *
+     * @param list list to be appended to
+     */
+    private void generateCastles(final IntMoveList list) {
+        int home = (side == Piece.Side.WHITE) ? 4 : 60;
+        if (king != home || (origins & Bitboards.bit(king)) == 0 ||
+            board.getPiece(king).moved()) {
+            return;
+        }
+        generateCastle(list, home + 3, 1);
+        generateCastle(list, home - 4, -1);
+    }
+
+    /**
+     * Generate a castling move with the rook on the given square.
+     *
+     * @param list list to be appended to
+     * @param rook square of the rook
+     * @param dir  direction the king moves in
+     */
+    private void generateCastle(final IntMoveList list, final int rook,
+                                final int dir) {
+        Piece r = board.getPiece(rook);
+        if (r == null || r.getType() != Piece.TORRE ||
+            r.getSide() != side || r.moved()) {
+
+            return;
+        }
+        long occ = board.occupancy();
+        if ((Bitboards.between(king, rook) & occ) != 0) {
+            return;
+        }
+        long them = board.occupancy(enemy);
+        if ((board.attackersOf(king + dir, occ) & them) != 0 ||
+            (board.attackersOf(king + 2 * dir, occ) & them) != 0) {
+
+            return;
+        }
+        list.add(IntMove.create(king, king + 2 * dir, IntMove.CASTLE));
+    }
+
+    /**
+     * Add a plain move or capture to every target square.
+     *
+     * @param list    list to be appended to
+     * @param from    origin square
+     * @param targets destination squares
+     */
+    private void addMoves(final IntMoveList list, final int from,
+                          final long targets) {
+        for (long bb = targets; bb != 0; bb &= bb - 1) {
+            list.add(IntMove.create(from, Bitboards.first(bb)));
+        }
+    }
+
+    /**
+     * Add a pawn move, expanded into each promotion on the last rank.
+     *
+     * @param list list to be appended to
+     * @param from origin square
+     * @param to   destination square
+     */
+    private void addPawnMove(final IntMoveList list, final int from,
+                             final int to) {
+        int last = (side == Piece.Side.WHITE) ? 7 : 0;
+        if (Bitboards.rank(to) != last) {
+            list.add(IntMove.create(from, to));
+            return;
+        }
+        for (int type : PROMOTIONS) {
+            list.add(IntMove.promotion(from, to, type));
+        }
+    }
+
+    /**
+     * Mask of squares a piece may move to without exposing its king.
+     *
+     * @param from square of the piece
+     * @return     allowed squares
+     */
+    private long pinMask(final int from) {
+        if ((pinned & Bitboards.bit(from)) == 0) {
+            return ~0L;
+        }
+        return Bitboards.line(king, from);
+    }
+
+    /**
+     * Determine if an en passant capture keeps the king safe.
+     *
+     * Two pawns leave the rank at once, so this is tested directly on
+     * the resulting occupancy rather than through the pin masks.
+     *
+     * @param from   origin of the capturing pawn
+     * @param to     destination of the capturing pawn
+     * @param victim square of the captured pawn
+     * @return       true if the capture is legal
+     */
+    private boolean enPassantLegal(final int from, final int to,
+                                   final int victim) {
+        if (king < 0) {
+            return true;
+        }
+        long occ = (board.occupancy() ^ Bitboards.bit(from)
+                    ^ Bitboards.bit(victim)) | Bitboards.bit(to);
+        long them = board.occupancy(enemy) & ~Bitboards.bit(victim);
+        return (board.attackersOf(king, occ) & them) == 0;
+    }
+}
@@ -26,6 +26,9 @@ public class MoveList implements Iterable<Move>, Serializable {
     /** The actual list of moves. */
     private final List<Move> moves = new ArrayList<Move>();
 
+    /** Pin and check masks for the check test, computed on first use. */
+    private transient MoveGenerator legality;
+
     /**
      * Create a new move list relative to a board.
      *
@@ -105,6 +108,19 @@ public class MoveList implements Iterable<Move>, Serializable {
         return false;
     }
 
+    /**
+     * Add a move or capture from the origin to every square in the
+     * target bitboard.
+     *
+     * @param origin  position of the moving piece
+     * @param targets bitboard of destination squares
+     */
+    public final void addCaptures(final Position origin, final long targets) {
+        for (long bb = targets; bb != 0; bb &= bb - 1) {
+            addCapture(new Move(origin, Bitboards.position(Bitboards.first(bb))));
+        }
+    }
+
     /**
      * Add move to list only if the piece will perform a capture.
      *
@@ -133,11 +149,12 @@ public class MoveList implements Iterable<Move>, Serializable {
         if (!check) {
             return false;
         }
-        Piece p = board.getPiece(move.getOrigin());
-        board.move(move);
-        boolean ret = board.check(p.getSide());
-        board.undo();
-        return ret;
+        if (legality == null) {
+            /* a list is filled from a single position, so analyse once */
+            legality = new MoveGenerator(board);
+            legality.analyse(board.getPiece(move.getOrigin()).getSide());
+        }
+        return !legality.isLegal(move);
     }
 
     /**
@@ -0,0 +1,58 @@
+package src;
+
+/**
+ * One reusable IntMoveList per search ply.
+ *
+ * A recursive search or perft asks for the list of its current ply,
+ * fills it with Board.legalMoves() and walks it while the deeper plies
+ * use their own lists. The lists are allocated once, up front, so
+ * visiting a node allocates nothing.
+ */
+public final class MoveStack {
+
+    /** Default number of plies. */
+    public static final int MAX_PLY = 128;
+
+    /** The lists, indexed by ply. */
+    private final IntMoveList[] lists;
+
+    /**
+     * Create a stack of MAX_PLY lists.
+     */
+    public MoveStack() {
+        this(MAX_PLY);
+    }
+
+    /**
+     * Create a stack with the given number of lists.
+     *
+     * @param plies number of plies
+     */
+    public MoveStack(final int plies) {
+        lists = new IntMoveList[plies];
+        for (int i = 0; i < plies; i++) {
+            lists[i] = new IntMoveList();
+        }
+    }
+
+    /**
+     * Get the list for a ply, emptied and ready to be filled.
+     *
+     * @param ply ply below depth()
+     * @return    the empty list
+     */
+    public IntMoveList get(final int ply) {
+        IntMoveList list = lists[ply];
+        list.clear();
+        return list;
+    }
+
+    /**
+     * Get the number of plies in this stack.
+     *
+     * @return number of plies
+     */
+    public int depth() {
+        return lists.length;
+    }
+}
@@ -0,0 +1,190 @@
+package src;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Performance test of the move generator.
+ *
+ * Perft walks the tree of legal moves to a fixed depth and counts the
+ * leaves. The counts for well known positions are published, so any
+ * difference points at a bug in move generation or in making and
+ * unmaking moves, and the time taken is a measure of raw generator
+ * speed. With bulk counting the last ply is not made on the board:
+ * the size of the move list is taken as the number of leaves.
+ */
+public final class Perft {
+
+    /** Reference positions with their node counts from depth 1 up. */
+    private static final Object[][] SUITE = {
+        {"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+         new long[] {20, 400, 8902, 197281, 4865609, 119060324}},
+        {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+         new long[] {48, 2039, 97862, 4085603, 193690690}},
+        {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+         new long[] {14, 191, 2812, 43238, 674624, 11030083}},
+        {"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+         new long[] {6, 264, 9467, 422333, 15833292}},
+        {"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+         new long[] {44, 1486, 62379, 2103487, 89941194}},
+        {"r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+         new long[] {46, 2079, 89890, 3894594, 164075551}},
+    };
+
+    /** Default deepest level of the suite. */
+    private static final int SUITE_DEPTH = 4;
+
+    /** The board being walked. */
+    private final Board board;
+
+    /** Move lists, one per ply. */
+    private final MoveStack stack = new MoveStack();
+
+    /** Count leaves from the move list size instead of making them. */
+    private final boolean bulk;
+
+    /**
+     * Create a perft walker for the given board.
+     *
+     * @param source the board, left unchanged after each walk
+     * @param bulkCount true to count the last ply without making it
+     */
+    public Perft(final Board source, final boolean bulkCount) {
+        board = source;
+        bulk = bulkCount;
+    }
+
+    /**
+     * Count the leaf nodes of the legal move tree.
+     *
+     * @param depth number of plies
+     * @return      number of leaf nodes
+     */
+    public long count(final int depth) {
+        if (depth < 0 || depth >= stack.depth()) {
+            throw new IllegalArgumentException("Bad perft depth: " + depth);
+        }
+        return walk(depth, 0);
+    }
+
+    /**
+     * Count the leaf nodes below each legal move of the side to move.
+     *
+     * @param depth number of plies, including the divided move
+     * @return      node count for each move, in coordinate notation
+     */
+    public Map<String, Long> divide(final int depth) {
+        if (depth < 1 || depth >= stack.depth()) {
+            throw new IllegalArgumentException("Bad divide depth: " + depth);
+        }
+        Map<String, Long> result = new LinkedHashMap<String, Long>();
+        IntMoveList moves = stack.get(0);
+        board.legalMoves(board.sideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.make(move);
+            result.put(IntMove.toString(move), walk(depth - 1, 1));
+            board.unmake();
+        }
+        return result;
+    }
+
+    /**
+     * Recursive part of the walk.
+     *
+     * @param depth remaining plies
+     * @param ply   distance from the root, used to pick the move list
+     * @return      number of leaf nodes
+     */
+    private long walk(final int depth, final int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        IntMoveList moves = stack.get(ply);
+        board.legalMoves(board.sideToMove(), moves);
+        if (bulk && depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.make(moves.get(i));
+            nodes += walk(depth - 1, ply + 1);
+            board.unmake();
+        }
+        return nodes;
+    }
+
+    /**
+     * Run the reference suite, printing each count and the speed.
+     *
+     * @param maxDepth deepest level to be run for any position
+     * @param out      stream for the report
+     * @return         true if every count matched
+     */
+    public static boolean runSuite(final int maxDepth, final PrintStream out) {
+        boolean ok = true;
+        long total = 0;
+        long elapsed = 0;
+        for (Object[] entry : SUITE) {
+            String fen = (String) entry[0];
+            long[] expected = (long[]) entry[1];
+            out.println(fen);
+            Perft perft = new Perft(Board.fromFen(fen), true);
+            for (int d = 1; d <= Math.min(maxDepth, expected.length); d++) {
+                long start = System.nanoTime();
+                long nodes = perft.count(d);
+                long time = System.nanoTime() - start;
+                total += nodes;
+                elapsed += time;
+                boolean match = nodes == expected[d - 1];
+                ok &= match;
+                out.printf("  depth %d: %12d %s %8.3fs %,14d nps%n",
+                           d, nodes, match ? "ok  " : "FAIL",
+                           time / 1e9, nps(nodes, time));
+            }
+        }
+        out.printf("total %d nodes in %.3fs, %,d nps: %s%n",
+                   total, elapsed / 1e9, nps(total, elapsed),
+                   ok ? "all passed" : "FAILED");
+        return ok;
+    }
+
+    /**
+     * Nodes per second.
+     *
+     * @param nodes number of nodes
+     * @param nanos time taken in nanoseconds
+     * @return      nodes per second
+     */
+    private static long nps(final long nodes, final long nanos) {
+        return (nanos == 0) ? 0 : nodes * 1000000000L / nanos;
+    }
+
+    /**
+     * Run the suite from the command line.
+     *
+     * @param args optional deepest level, or a depth and a FEN to divide
+     */
+    public static void main(final String[] args) {
+        if (args.length > 1) {
+            int depth = Integer.parseInt(args[0]);
+            StringBuilder fen = new StringBuilder();
+            for (int i = 1; i < args.length; i++) {
+                fen.append(args[i]).append(' ');
+            }
+            long total = 0;
+            for (Map.Entry<String, Long> e
+                     : Board.fromFen(fen.toString()).divide(depth).entrySet()) {
+                System.out.println(e.getKey() + ": " + e.getValue());
+                total += e.getValue();
+            }
+            System.out.println("total: " + total);
+            return;
+        }
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : SUITE_DEPTH;
+        if (!runSuite(depth, System.out)) {
+            System.exit(1);
+        }
+    }
+}
@@ -24,6 +24,26 @@ public abstract class Piece implements Serializable {
     @Serial
     private static final long serialVersionUID = -214124732216708977L;
 
+    /** Type index of the pawn. */
+    public static final int PEDONE = 0;
+
+    /** Type index of the knight. */
+    public static final int CAVALLO = 1;
+
+    /** Type index of the bishop. */
+    public static final int ALFIERE = 2;
+
+    /** Type index of the rook. */
+    public static final int TORRE = 3;
+
+    /** Type index of the queen. */
+    public static final int REGINA = 4;
+
+    /** Type index of the king. */
+    public static final int RE = 5;
+
+    /** Number of piece types, used to size the bitboard arrays. */
+    public static final int TYPES = 6;
 
     /** The side this piece belongs to. */
     private Side side;
@@ -40,6 +60,9 @@ public abstract class Piece implements Serializable {
     /** Name of this piece. */
     private String name;
 
+    /** Type index of this piece (PEDONE, CAVALLO, ...). */
+    private int type;
+
     /**
      * The side of the piece: white or black.
      */
@@ -76,6 +99,15 @@ public abstract class Piece implements Serializable {
             return value;
         }
 
+        /**
+         * Get the array index of the side: 0 for white, 1 for black.
+         *
+         * @return index of the side
+         */
+        public int index() {
+            return (this == WHITE) ? 0 : 1;
+        }
+
         public Side opposite() {
             return (this == WHITE) ? BLACK : WHITE;
         }
@@ -92,10 +124,13 @@ public abstract class Piece implements Serializable {
      *
      * @param owner the side of the piece
      * @param pieceName name of this piece
+     * @param pieceType type index of this piece
      */
-    protected Piece(final Side owner, final String pieceName) {
+    protected Piece(final Side owner, final String pieceName,
+                    final int pieceType) {
         side = owner;
         name = pieceName;
+        type = pieceType;
     }
 
     /**
@@ -162,6 +197,35 @@ public abstract class Piece implements Serializable {
         return side;
     }
 
+    /**
+     * Get the type index for this piece.
+     *
+     * @return the piece's type index
+     */
+    public final int getType() {
+        return type;
+    }
+
+    /**
+     * Get the bitboard index for this piece: one per type and side.
+     *
+     * @return the piece's bitboard index
+     */
+    public final int getIndex() {
+        return index(side, type);
+    }
+
+    /**
+     * Get the bitboard index for the given side and piece type.
+     *
+     * @param s     side of the piece
+     * @param kind  type index of the piece
+     * @return      bitboard index
+     */
+    public static int index(final Side s, final int kind) {
+        return s.index() * TYPES + kind;
+    }
+
     /**
      * Get the image that represents this piece.
      *
@@ -211,6 +275,18 @@ public abstract class Piece implements Serializable {
         moved--;
     }
 
+    /**
+     * Create an unplaced piece of the same kind, side and movement
+     * count as this one.
+     *
+     * @return the new piece
+     */
+    public final Piece copy() {
+        Piece twin = src.pieces.PieceFactory.create(name, side);
+        twin.moved = moved;
+        return twin;
+    }
+
     /**
      * Return the opposing side.
      *
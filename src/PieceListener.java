@@ -0,0 +1,24 @@
+package src;
+
+/**
+ * An object (like an incrementally updated evaluation) that needs to
+ * know every piece put on or taken off a Board.
+ */
+public interface PieceListener {
+
+    /**
+     * Called when a piece has been put on a square.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @param sq    square index
+     */
+    void pieceAdded(int index, int sq);
+
+    /**
+     * Called when a piece has been taken off a square.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @param sq    square index
+     */
+    void pieceRemoved(int index, int sq);
+}
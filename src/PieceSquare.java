@@ -0,0 +1,187 @@
+package src;
+
+/**
+ * Material and piece-square values for the evaluation.
+ *
+ * Every piece on a square is worth its material value plus a bonus
+ * for the square, once for the middlegame and once for the endgame.
+ * White's values are positive and black's negative, so the sums over
+ * the board are white's advantage, and since they are sums the Board
+ * keeps them up to date as pieces are put and removed. The evaluation
+ * blends the two by the game phase, which falls from MAX_PHASE with
+ * all pieces on the board towards 0 as pieces other than pawns are
+ * traded.
+ */
+public final class PieceSquare {
+
+    /** Phase with every piece but the pawns on the board. */
+    public static final int MAX_PHASE = 24;
+
+    /** Middlegame material values, indexed by type. */
+    private static final int[] MG_VALUES = {82, 337, 365, 477, 1025, 0};
+
+    /** Endgame material values, indexed by type. */
+    private static final int[] EG_VALUES = {94, 281, 297, 512, 936, 0};
+
+    /** Contribution of each type to the phase. */
+    private static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+
+    /*
+     * The tables below are laid out as the board is seen from white's
+     * side, a8 first, and are mirrored for black.
+     */
+
+    /** Pawn squares in the middlegame. */
+    private static final int[] PAWN_MG = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         10,  10,  20,  30,  30,  20,  10,  10,
+          5,   5,  10,  25,  25,  10,   5,   5,
+          0,   0,   0,  20,  20,   0,   0,   0,
+          5,  -5, -10,   0,   0, -10,  -5,   5,
+          5,  10,  10, -20, -20,  10,  10,   5,
+          0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    /** Pawn squares in the endgame, where passers must run. */
+    private static final int[] PAWN_EG = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         80,  80,  80,  80,  80,  80,  80,  80,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         30,  30,  30,  30,  30,  30,  30,  30,
+         20,  20,  20,  20,  20,  20,  20,  20,
+         10,  10,  10,  10,  10,  10,  10,  10,
+         10,  10,  10,  10,  10,  10,  10,  10,
+          0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    /** Knight squares. */
+    private static final int[] KNIGHT = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50,
+    };
+
+    /** Bishop squares. */
+    private static final int[] BISHOP = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20,
+    };
+
+    /** Rook squares. */
+    private static final int[] ROOK = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+          5,  10,  10,  10,  10,  10,  10,   5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+          0,   0,   0,   5,   5,   0,   0,   0,
+    };
+
+    /** Queen squares. */
+    private static final int[] QUEEN = {
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,   5,   5,   5,   0, -10,
+         -5,   0,   5,   5,   5,   5,   0,  -5,
+          0,   0,   5,   5,   5,   5,   0,  -5,
+        -10,   5,   5,   5,   5,   5,   0, -10,
+        -10,   0,   5,   0,   0,   0,   0, -10,
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+    };
+
+    /** King squares in the middlegame, where it hides behind pawns. */
+    private static final int[] KING_MG = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20,
+    };
+
+    /** King squares in the endgame, where it heads for the center. */
+    private static final int[] KING_EG = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50,
+    };
+
+    /** Middlegame values indexed by Piece.index(side, type) and square. */
+    private static final int[][] MG = new int[Piece.TYPES * 2][Bitboards.SQUARES];
+
+    /** Endgame values indexed by Piece.index(side, type) and square. */
+    private static final int[][] EG = new int[Piece.TYPES * 2][Bitboards.SQUARES];
+
+    static {
+        int[][] mg = {PAWN_MG, KNIGHT, BISHOP, ROOK, QUEEN, KING_MG};
+        int[][] eg = {PAWN_EG, KNIGHT, BISHOP, ROOK, QUEEN, KING_EG};
+        for (int type = 0; type < Piece.TYPES; type++) {
+            int white = Piece.index(Piece.Side.WHITE, type);
+            int black = Piece.index(Piece.Side.BLACK, type);
+            for (int sq = 0; sq < Bitboards.SQUARES; sq++) {
+                /* the tables start at a8, squares at a1 */
+                MG[white][sq] = MG_VALUES[type] + mg[type][sq ^ 56];
+                EG[white][sq] = EG_VALUES[type] + eg[type][sq ^ 56];
+                MG[black][sq] = -(MG_VALUES[type] + mg[type][sq]);
+                EG[black][sq] = -(EG_VALUES[type] + eg[type][sq]);
+            }
+        }
+    }
+
+    /** Hidden constructor. */
+    private PieceSquare() {
+    }
+
+    /**
+     * Middlegame value of a piece on a square.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @param sq    square index
+     * @return      value in centipawns, negative for black
+     */
+    public static int mg(final int index, final int sq) {
+        return MG[index][sq];
+    }
+
+    /**
+     * Endgame value of a piece on a square.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @param sq    square index
+     * @return      value in centipawns, negative for black
+     */
+    public static int eg(final int index, final int sq) {
+        return EG[index][sq];
+    }
+
+    /**
+     * Contribution of a piece type to the game phase.
+     *
+     * @param type type index
+     * @return     phase weight
+     */
+    public static int phase(final int type) {
+        return PHASE[type];
+    }
+}
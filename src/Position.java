@@ -5,6 +5,11 @@ import java.io.Serializable;
 
 /**
  * Represents a position on a Chess board.
+ *
+ * Positions are immutable, so there is one shared instance for each of
+ * the 64 squares, plus OFF_BOARD for anything outside the board. Use
+ * the of() factories rather than the constructors to get them without
+ * allocating.
  */
 public final class Position implements Comparable<Position>, Serializable {
 
@@ -17,6 +22,55 @@ public final class Position implements Comparable<Position>, Serializable {
      */
     private final int x, y;
 
+    /** The canonical positions, indexed by square. */
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int sq = 0; sq < SQUARES.length; sq++) {
+            SQUARES[sq] = new Position(sq & 7, sq >>> 3);
+        }
+    }
+
+    /** Shared position for every square off the board. */
+    public static final Position OFF_BOARD = new Position(-1, -1);
+
+    /**
+     * Get the shared position for the given coordinates.
+     *
+     * @param posX x coordinate
+     * @param posY y coordinate
+     * @return     the position, or OFF_BOARD if not on the board
+     */
+    public static Position of(final int posX, final int posY) {
+        if (posX < 0 || posY < 0 || posX >= 8 || posY >= 8) {
+            return OFF_BOARD;
+        }
+        return SQUARES[posY * 8 + posX];
+    }
+
+    /**
+     * Get the shared position relative to an existing position.
+     *
+     * @param pos    original position
+     * @param deltax change in x
+     * @param deltay change in y
+     * @return       the position, or OFF_BOARD if not on the board
+     */
+    public static Position of(final Position pos, final int deltax,
+                              final int deltay) {
+        return of(pos.x + deltax, pos.y + deltay);
+    }
+
+    /**
+     * Get the shared position for a square index.
+     *
+     * @param sq square index, 0 (a1) to 63 (h8)
+     * @return   the position
+     */
+    public static Position of(final int sq) {
+        return SQUARES[sq];
+    }
+
     /**
      * Create a new position with given coordinates.
      *
@@ -57,6 +111,15 @@ public final class Position implements Comparable<Position>, Serializable {
         return y;
     }
 
+    /**
+     * Get the square index of the position, 0 (a1) to 63 (h8).
+     *
+     * @return the square index
+     */
+    public int getSquare() {
+        return y * 8 + x;
+    }
+
     /**
      * Convert the position to a string.
      *
@@ -98,7 +161,7 @@ public final class Position implements Comparable<Position>, Serializable {
      * @return hash code of this object.
      */
     public int hashCode() {
-        return x ^ y;
+        return getSquare();
     }
 
     /**
@@ -114,4 +177,14 @@ public final class Position implements Comparable<Position>, Serializable {
             return y - pos.y;
         }
     }
+
+    /**
+     * Replace a deserialized position with the shared instance.
+     *
+     * @return the shared position
+     */
+    @Serial
+    private Object readResolve() {
+        return of(x, y);
+    }
 }
@@ -0,0 +1,114 @@
+package src;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist hash keys.
+ *
+ * A position's hash is the XOR of one random key for each piece on
+ * each square, plus keys for the side to move, the castling rights and
+ * the file of a possible en passant capture. Since XOR is its own
+ * inverse, moving a piece only takes two XORs, so the hash can follow
+ * the board move by move. The keys come from a fixed seed, so hashes
+ * stay the same from one run to the next and may be stored.
+ */
+public final class Zobrist {
+
+    /** Seed of the key generator. Changing it changes every hash. */
+    private static final long SEED = 0x5CAC0C4E5L;
+
+    /** Castling right: white kingside. */
+    public static final int WHITE_KINGSIDE = 1;
+
+    /** Castling right: white queenside. */
+    public static final int WHITE_QUEENSIDE = 2;
+
+    /** Castling right: black kingside. */
+    public static final int BLACK_KINGSIDE = 4;
+
+    /** Castling right: black queenside. */
+    public static final int BLACK_QUEENSIDE = 8;
+
+    /** Keys indexed by Piece.index(side, type) and square. */
+    private static final long[][] PIECES =
+        new long[Piece.TYPES * 2][Bitboards.SQUARES];
+
+    /** Keys for every combination of castling rights. */
+    private static final long[] CASTLING = new long[16];
+
+    /** Keys for the en passant file. */
+    private static final long[] EN_PASSANT = new long[8];
+
+    /** Key included when black is to move. */
+    private static final long BLACK;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < keys.length; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        /* the combined rights key is the XOR of the single right keys */
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = random.nextLong();
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT.length; file++) {
+            EN_PASSANT[file] = random.nextLong();
+        }
+        BLACK = random.nextLong();
+    }
+
+    /** Hidden constructor. */
+    private Zobrist() {
+    }
+
+    /**
+     * Key of a piece on a square.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @param sq    square index
+     * @return      the key
+     */
+    public static long piece(final int index, final int sq) {
+        return PIECES[index][sq];
+    }
+
+    /**
+     * Key of a set of castling rights.
+     *
+     * @param rights combination of WHITE_KINGSIDE ... BLACK_QUEENSIDE
+     * @return       the key
+     */
+    public static long castling(final int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * Key of an en passant square.
+     *
+     * @param sq square index, or -1 for none
+     * @return   the key of its file, or 0 for none
+     */
+    public static long enPassant(final int sq) {
+        return (sq < 0) ? 0 : EN_PASSANT[Bitboards.file(sq)];
+    }
+
+    /**
+     * Key of the side to move.
+     *
+     * @param side the side to move
+     * @return     the key, which is 0 for white
+     */
+    public static long side(final Piece.Side side) {
+        return (side == Piece.Side.BLACK) ? BLACK : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package src.engine;
+
+/**
+ * The inner loops of the array based evaluations, on vectors of 16
+ * bit values: dot products, and adding or subtracting a weight column
+ * to or from an accumulator.
+ *
+ * ScalarDot works on any JVM. VectorDot uses the incubating Vector API
+ * and needs the jdk.incubator.vector module, so it lives in a source
+ * root of its own and is only ever loaded by name; Kernels falls back
+ * to ScalarDot without it.
+ */
+public interface DotKernel {
+
+    /**
+     * Compute the dot product of the first elements of two arrays.
+     *
+     * @param a      first vector
+     * @param b      second vector
+     * @param length number of elements
+     * @return       the sum of the products, in 32 bits
+     */
+    int dot(short[] a, short[] b, int length);
+
+    /**
+     * Add a slice of one array to another, element by element, with
+     * 16 bit wraparound.
+     *
+     * @param acc    array added to
+     * @param values array holding the slice
+     * @param offset start of the slice
+     * @param length number of elements
+     */
+    void add(short[] acc, short[] values, int offset, int length);
+
+    /**
+     * Subtract a slice of one array from another, element by element,
+     * with 16 bit wraparound.
+     *
+     * @param acc    array subtracted from
+     * @param values array holding the slice
+     * @param offset start of the slice
+     * @param length number of elements
+     */
+    void subtract(short[] acc, short[] values, int offset, int length);
+}
@@ -0,0 +1,62 @@
+package src.engine;
+
+import src.Board;
+import src.Piece;
+import src.PieceSquare;
+
+/**
+ * Static evaluation of a position.
+ *
+ * Scores are in centipawns from the point of view of the side to
+ * move, as negamax expects. The evaluation is material and piece-square
+ * values, whose middlegame and endgame sums the Board keeps up to date
+ * as it moves, blended by the game phase; so evaluating a position
+ * takes constant time.
+ */
+public final class Evaluation {
+
+    /** Rough piece values in centipawns for pruning, indexed by type. */
+    private static final int[] VALUES = {100, 320, 330, 500, 900, 0};
+
+    /** Hidden constructor. */
+    private Evaluation() {
+    }
+
+    /**
+     * Get the value of a piece type.
+     *
+     * @param type type index
+     * @return     value in centipawns
+     */
+    public static int value(final int type) {
+        return VALUES[type];
+    }
+
+    /**
+     * Evaluate a position for the side to move.
+     *
+     * @param board the position
+     * @return      score in centipawns
+     */
+    public static int evaluate(final Board board) {
+        return blend(board.middlegame(), board.endgame(), board.phase(),
+                     board.sideToMove());
+    }
+
+    /**
+     * Blend middlegame and endgame scores by the game phase.
+     *
+     * @param mg    white's middlegame advantage
+     * @param eg    white's endgame advantage
+     * @param phase game phase, capped at PieceSquare.MAX_PHASE
+     * @param side  side to move
+     * @return      score in centipawns for the side to move
+     */
+    static int blend(final int mg, final int eg, final int phase,
+                     final Piece.Side side) {
+        int p = Math.min(phase, PieceSquare.MAX_PHASE);
+        int score = (mg * p + eg * (PieceSquare.MAX_PHASE - p))
+            / PieceSquare.MAX_PHASE;
+        return (side == Piece.Side.WHITE) ? score : -score;
+    }
+}
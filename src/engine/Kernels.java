@@ -0,0 +1,81 @@
+package src.engine;
+
+import java.util.logging.Logger;
+
+/**
+ * Choice of the DotKernel for the array based evaluations.
+ *
+ * VectorDot is compiled from the separate "vector" source root and is
+ * used when its classes are on the class path and the JVM runs with
+ * "--add-modules jdk.incubator.vector"; otherwise ScalarDot is. Setting
+ * the system property "src.engine.scalar" forces the scalar kernel.
+ * The choice is made once, the first time a kernel is asked for.
+ */
+public final class Kernels {
+
+    /** This class's Logger. */
+    private static final Logger LOG = Logger.getLogger("src.engine.Kernels");
+
+    /** Name of the Vector API kernel class. */
+    private static final String VECTOR = "src.engine.VectorDot";
+
+    /** Kernel chosen at startup. */
+    private static final DotKernel PREFERRED = select();
+
+    /** Hidden constructor. */
+    private Kernels() {
+    }
+
+    /**
+     * Get the kernel chosen at startup.
+     *
+     * @return VectorDot if available, otherwise ScalarDot
+     */
+    public static DotKernel preferred() {
+        return PREFERRED;
+    }
+
+    /**
+     * Create the plain loop kernel.
+     *
+     * @return a ScalarDot
+     */
+    public static DotKernel scalar() {
+        return new ScalarDot();
+    }
+
+    /**
+     * Create the Vector API kernel.
+     *
+     * @return a VectorDot
+     * @throws UnsupportedOperationException if it cannot be loaded
+     */
+    public static DotKernel vector() {
+        try {
+            Class<?> c = Class.forName(VECTOR);
+            return (DotKernel) c.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new UnsupportedOperationException("Vector API unavailable", e);
+        }
+    }
+
+    /**
+     * Choose the kernel: VectorDot if it can be loaded.
+     *
+     * @return the kernel
+     */
+    private static DotKernel select() {
+        if (Boolean.getBoolean("src.engine.scalar")) {
+            return scalar();
+        }
+        try {
+            DotKernel kernel = vector();
+            LOG.fine("Using the Vector API");
+            return kernel;
+        } catch (UnsupportedOperationException e) {
+            LOG.fine("Vector API unavailable, using scalar kernel: "
+                     + e.getCause());
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package src.engine;
+
+import src.Board;
+import src.IntMove;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Parallel search by Lazy SMP.
+ *
+ * The main search runs on the calling thread and each helper runs the
+ * same iterative deepening on its own thread and its own copy of the
+ * position. The searches do not divide the work between them: they
+ * only share the transposition table, so each one finds many of the
+ * others' results there and the threads drift apart onto different
+ * parts of the tree. Half of the helpers start one ply deeper to
+ * spread them further. When the main search finishes, the helpers are
+ * stopped and the result of the deepest finished iteration of any
+ * search is used.
+ */
+public final class LazySmp {
+
+    /** The main search first, then the helpers. */
+    private final Search[] searches;
+
+    /** Stops the helpers once the main search is done. */
+    private final AtomicBoolean abort = new AtomicBoolean();
+
+    /** The search whose result was used by the last run(). */
+    private Search best;
+
+    /**
+     * Create a parallel search of a position.
+     *
+     * The helpers' copies of the position are taken now, so the board
+     * must not change between this and run().
+     *
+     * @param position the board, which the main search changes while
+     *                 running
+     * @param tt       transposition table shared by all threads
+     * @param threads  number of threads, including the calling one
+     */
+    public LazySmp(final Board position, final TranspositionTable tt,
+                   final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Bad thread count: " + threads);
+        }
+        searches = new Search[threads];
+        searches[0] = new Search(position, tt);
+        for (int i = 1; i < threads; i++) {
+            searches[i] = new Search(position.copy(), tt);
+            searches[i].setFirstDepth(1 + i % 2);
+        }
+        for (Search search : searches) {
+            search.setAbort(abort::get);
+        }
+        best = searches[0];
+    }
+
+    /**
+     * Switch the mobility terms on or off in every search. Not to be
+     * called while running.
+     *
+     * @param enabled true to evaluate with MobilityEvaluation
+     */
+    public void setMobility(final boolean enabled) {
+        for (Search search : searches) {
+            search.setMobility(enabled);
+        }
+    }
+
+    /**
+     * Evaluate positions with a network rather than with Evaluation.
+     * Each search follows its own board with its own accumulators.
+     * Not to be called while running.
+     *
+     * @param net the network, or null for Evaluation
+     */
+    public void setNetwork(final Network net) {
+        for (Search search : searches) {
+            search.setNetwork(net);
+        }
+    }
+
+    /**
+     * Search the position for the side to move.
+     *
+     * @param maxDepth deepest iteration, at most Search.MAX_DEPTH
+     * @param millis   time budget in milliseconds, or 0 for none
+     * @return         best move found, or IntMove.NONE if there is none
+     */
+    public int run(final int maxDepth, final long millis) {
+        if (maxDepth < 1 || maxDepth > Search.MAX_DEPTH) {
+            throw new IllegalArgumentException("Bad depth: " + maxDepth);
+        }
+        abort.set(false);
+        Thread[] helpers = new Thread[searches.length - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = searches[i + 1];
+            helpers[i] = new Thread(() -> helper.run(maxDepth, millis),
+                                    "search-helper-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+        searches[0].run(maxDepth, millis);
+        abort.set(true);
+
+        boolean interrupted = false;
+        for (Thread helper : helpers) {
+            while (helper.isAlive()) {
+                try {
+                    helper.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        best = searches[0];
+        for (Search search : searches) {
+            if (search.depth() > best.depth() &&
+                search.bestMove() != IntMove.NONE) {
+
+                best = search;
+            }
+        }
+        return best.bestMove();
+    }
+
+    /**
+     * Abandon the search as soon as possible. May be called from any
+     * thread.
+     */
+    public void stop() {
+        abort.set(true);
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Get the number of threads.
+     *
+     * @return threads, including the calling one
+     */
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Get the best move of the last run().
+     *
+     * @return encoded move, or IntMove.NONE
+     */
+    public int bestMove() {
+        return best.bestMove();
+    }
+
+    /**
+     * Get the score of the deepest finished iteration.
+     *
+     * @return score in centipawns for the side to move
+     */
+    public int score() {
+        return best.score();
+    }
+
+    /**
+     * Get the depth of the deepest finished iteration.
+     *
+     * @return depth in plies
+     */
+    public int depth() {
+        return best.depth();
+    }
+
+    /**
+     * Get the number of positions visited by all threads in the last
+     * run().
+     *
+     * @return node count
+     */
+    public long nodes() {
+        long total = 0;
+        for (Search search : searches) {
+            total += search.nodes();
+        }
+        return total;
+    }
+}
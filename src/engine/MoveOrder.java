@@ -0,0 +1,250 @@
+package src.engine;
+
+import src.Board;
+import src.IntMove;
+import src.IntMoveList;
+import src.MoveStack;
+import src.Piece;
+
+/**
+ * Move ordering for alpha-beta search.
+ *
+ * Each move of a list is given a score: the hash move first, then
+ * captures and promotions by most valuable victim and least valuable
+ * attacker, then the killer moves of the ply (quiet moves that caused
+ * a cutoff in a sibling position), then captures that static exchange
+ * evaluation says lose material, then the other quiet moves by how
+ * often they caused cutoffs anywhere (the history heuristic). The list
+ * is not sorted up front: next() picks the best remaining move each
+ * time, so a node that is cut off after one or two moves only pays for
+ * finding those.
+ */
+public final class MoveOrder {
+
+    /** Score of the hash move. */
+    private static final int HASH = 1 << 30;
+
+    /** Base score of captures and promotions. */
+    private static final int CAPTURE = 1 << 24;
+
+    /** Score of the first killer; the second gets one less. */
+    private static final int KILLER = 1 << 22;
+
+    /** Base score of captures that lose material, after the killers. */
+    private static final int BAD_CAPTURE = 1 << 21;
+
+    /** History scores are halved when one reaches this. */
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    /** Killer moves per ply. */
+    static final int KILLERS = 2;
+
+    /** Ordering weight of each piece type as a victim or attacker. */
+    private static final int[] WEIGHT = {1, 3, 3, 5, 9, 20};
+
+    /** Killer moves, indexed by ply. */
+    private final int[][] killers = new int[MoveStack.MAX_PLY][KILLERS];
+
+    /** History scores indexed by Piece.index(side, type) and square. */
+    private final int[][] history = new int[Piece.TYPES * 2][64];
+
+    /** Scores of the moves in each ply's list. */
+    private final int[][] scores =
+        new int[MoveStack.MAX_PLY][IntMoveList.CAPACITY];
+
+    /**
+     * Score every move of a list, ready for next().
+     *
+     * @param board    the position the moves belong to
+     * @param moves    the moves
+     * @param ply      distance from the root
+     * @param hashMove move to be tried first, or IntMove.NONE
+     */
+    public void score(final Board board, final IntMoveList moves,
+                      final int ply, final int hashMove) {
+        int[] s = scores[ply];
+        int[] k = killers[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == hashMove) {
+                s[i] = HASH;
+            } else if (isTactical(board, move)) {
+                s[i] = captureScore(board, move);
+            } else if (move == k[0]) {
+                s[i] = KILLER;
+            } else if (move == k[1]) {
+                s[i] = KILLER - 1;
+            } else {
+                s[i] = quietScore(board, move);
+            }
+        }
+    }
+
+    /**
+     * Score a capture or promotion.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  the move
+     * @return      its score, which isGood() if it does not lose material
+     */
+    int captureScore(final Board board, final int move) {
+        int key = mvvLva(board, move);
+        return losing(board, move) ? BAD_CAPTURE + key : CAPTURE + key;
+    }
+
+    /**
+     * Score a quiet move by its history.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  the move
+     * @return      its score
+     */
+    int quietScore(final Board board, final int move) {
+        return history[board.getPiece(IntMove.from(move)).getIndex()]
+                      [IntMove.to(move)];
+    }
+
+    /**
+     * Determine if a capture score is for a capture that does not lose
+     * material.
+     *
+     * @param score score from captureScore()
+     * @return      true if ordered before the killers
+     */
+    static boolean isGood(final int score) {
+        return score >= CAPTURE;
+    }
+
+    /**
+     * Get a killer move of a ply.
+     *
+     * @param ply  distance from the root
+     * @param slot 0 for the most recent killer, 1 for the one before
+     * @return     the killer, or IntMove.NONE
+     */
+    int killer(final int ply, final int slot) {
+        return killers[ply][slot];
+    }
+
+    /**
+     * Bring the best remaining move to the given index and return it.
+     *
+     * @param moves the list scored by score()
+     * @param ply   distance from the root
+     * @param index number of moves already returned
+     * @return      the best move not yet returned
+     */
+    public int next(final IntMoveList moves, final int ply, final int index) {
+        int[] s = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (s[i] > s[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = s[index];
+            s[index] = s[best];
+            s[best] = tmp;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Record a quiet move that caused a beta cutoff.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  the move
+     * @param ply   distance from the root
+     * @param depth remaining depth at the cutoff
+     */
+    public void cutoff(final Board board, final int move, final int ply,
+                       final int depth) {
+        int[] k = killers[ply];
+        if (k[0] != move) {
+            k[1] = k[0];
+            k[0] = move;
+        }
+        int[] h = history[board.getPiece(IntMove.from(move)).getIndex()];
+        h[IntMove.to(move)] += depth * depth;
+        if (h[IntMove.to(move)] >= HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] /= 2;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget the killers, which belong to the previous search's plies,
+     * and weaken the history scores.
+     */
+    public void newSearch() {
+        for (int[] k : killers) {
+            k[0] = IntMove.NONE;
+            k[1] = IntMove.NONE;
+        }
+        for (int[] row : history) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] /= 8;
+            }
+        }
+    }
+
+    /**
+     * Determine if a move captures or promotes.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  the move
+     * @return      true unless the move is quiet
+     */
+    public static boolean isTactical(final Board board, final int move) {
+        int kind = IntMove.kind(move);
+        return kind == IntMove.EN_PASSANT || kind == IntMove.PROMOTION
+            || (kind == IntMove.NORMAL && board.getPiece(IntMove.to(move)) != null);
+    }
+
+    /**
+     * Determine if a capture or promotion loses material.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  a capture or promotion
+     * @return      true if static exchange evaluation is negative
+     */
+    private static boolean losing(final Board board, final int move) {
+        Piece victim = board.getPiece(IntMove.to(move));
+        if (IntMove.kind(move) == IntMove.NORMAL && victim != null &&
+            WEIGHT[victim.getType()]
+            >= WEIGHT[board.getPiece(IntMove.from(move)).getType()]) {
+
+            /* taking an equal or bigger piece never loses */
+            return false;
+        }
+        return board.see(move) < 0;
+    }
+
+    /**
+     * Most valuable victim, least valuable attacker ordering key.
+     *
+     * @param board the position the move belongs to, before it is made
+     * @param move  a capture or promotion
+     * @return      larger for better captures
+     */
+    public static int mvvLva(final Board board, final int move) {
+        int victim;
+        if (IntMove.kind(move) == IntMove.EN_PASSANT) {
+            victim = Piece.PEDONE;
+        } else {
+            Piece p = board.getPiece(IntMove.to(move));
+            victim = (p == null) ? -1 : p.getType();
+        }
+        int attacker = board.getPiece(IntMove.from(move)).getType();
+        int key = ((victim < 0) ? 0 : WEIGHT[victim] * 64) - WEIGHT[attacker];
+        if (IntMove.kind(move) == IntMove.PROMOTION) {
+            key += WEIGHT[IntMove.promotion(move)] * 64;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,251 @@
+package src.engine;
+
+import src.Board;
+import src.IntMove;
+import src.IntMoveList;
+
+/**
+ * Staged move picker for the search.
+ *
+ * Instead of generating and ordering every legal move of a node up
+ * front, the picker hands them out in stages and only does the work of
+ * a stage once the earlier ones have failed to cut the node off: the
+ * hash move, which is tested for legality without generating anything;
+ * the captures and promotions that do not lose material, best first;
+ * the killer moves; the captures that lose material; and last the
+ * quiet moves by history score, which are only generated at this
+ * point. A node cut off by its hash move or a good capture never
+ * generates its quiet moves. When the side to move is in check all
+ * evasions are generated at once and ordered by MoveOrder.
+ *
+ * A picker serves one ply of one search and is reused from node to
+ * node.
+ */
+public final class MovePicker {
+
+    /** Try the hash move. */
+    private static final int HASH = 0;
+
+    /** Generate the captures, or the evasions when in check. */
+    private static final int GENERATE_CAPTURES = 1;
+
+    /** Hand out the captures that do not lose material. */
+    private static final int GOOD_CAPTURES = 2;
+
+    /** Hand out the killers. */
+    private static final int KILLERS = 3;
+
+    /** Hand out the remaining captures. */
+    private static final int BAD_CAPTURES = 4;
+
+    /** Generate the quiet moves. */
+    private static final int GENERATE_QUIETS = 5;
+
+    /** Hand out the quiet moves. */
+    private static final int QUIETS = 6;
+
+    /** Hand out the evasions. */
+    private static final int EVASIONS = 7;
+
+    /** Nothing left. */
+    private static final int DONE = 8;
+
+    /** Ordering heuristics of the search. */
+    private final MoveOrder order;
+
+    /** Captures and promotions, or evasions. */
+    private final IntMoveList captures = new IntMoveList();
+
+    /** Scores of the captures. */
+    private final int[] captureScores = new int[IntMoveList.CAPACITY];
+
+    /** Quiet moves. */
+    private final IntMoveList quiets = new IntMoveList();
+
+    /** Scores of the quiet moves. */
+    private final int[] quietScores = new int[IntMoveList.CAPACITY];
+
+    /** Killers already handed out, so the quiet stage skips them. */
+    private final int[] killers = new int[MoveOrder.KILLERS];
+
+    /** The position of the node. */
+    private Board board;
+
+    /** Distance of the node from the root. */
+    private int ply;
+
+    /** Move to try first, or IntMove.NONE. */
+    private int hashMove;
+
+    /** Whether the side to move is in check. */
+    private boolean evading;
+
+    /** Current stage. */
+    private int stage;
+
+    /** Moves handed out from the current list. */
+    private int index;
+
+    /** Killer slots tried. */
+    private int slot;
+
+    /**
+     * Create a picker.
+     *
+     * @param ordering the search's ordering heuristics
+     */
+    public MovePicker(final MoveOrder ordering) {
+        order = ordering;
+    }
+
+    /**
+     * Start picking the moves of a node.
+     *
+     * @param position the node's position, which must not change between
+     *                 calls to next() except for moves that are undone
+     * @param distance distance from the root
+     * @param best     move to try first, or IntMove.NONE
+     * @param inCheck  whether the side to move is in check
+     */
+    public void start(final Board position, final int distance,
+                      final int best, final boolean inCheck) {
+        board = position;
+        ply = distance;
+        hashMove = best;
+        evading = inCheck;
+        stage = HASH;
+        slot = 0;
+        killers[0] = IntMove.NONE;
+        killers[1] = IntMove.NONE;
+    }
+
+    /**
+     * Get the next move.
+     *
+     * @return a legal move not handed out before, or IntMove.NONE once
+     *         there are none left
+     */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case HASH:
+                    stage = GENERATE_CAPTURES;
+                    if (hashMove != IntMove.NONE && board.isLegal(hashMove)) {
+                        return hashMove;
+                    }
+                    hashMove = IntMove.NONE;
+                    break;
+                case GENERATE_CAPTURES:
+                    captures.clear();
+                    board.captureMoves(board.sideToMove(), captures);
+                    index = 0;
+                    if (evading) {
+                        order.score(board, captures, ply, hashMove);
+                        stage = EVASIONS;
+                    } else {
+                        for (int i = 0; i < captures.size(); i++) {
+                            captureScores[i] =
+                                order.captureScore(board, captures.get(i));
+                        }
+                        stage = GOOD_CAPTURES;
+                    }
+                    break;
+                case GOOD_CAPTURES:
+                    if (index < captures.size()) {
+                        int move = pick(captures, captureScores, index);
+                        if (MoveOrder.isGood(captureScores[index])) {
+                            index++;
+                            if (move != hashMove) {
+                                return move;
+                            }
+                            break;
+                        }
+                    }
+                    stage = KILLERS;
+                    break;
+                case KILLERS:
+                    if (slot < MoveOrder.KILLERS) {
+                        int killer = order.killer(ply, slot);
+                        killers[slot++] = killer;
+                        if (killer != IntMove.NONE && killer != hashMove &&
+                            !MoveOrder.isTactical(board, killer) &&
+                            board.isLegal(killer)) {
+
+                            return killer;
+                        }
+                        break;
+                    }
+                    stage = BAD_CAPTURES;
+                    break;
+                case BAD_CAPTURES:
+                    if (index < captures.size()) {
+                        int move = pick(captures, captureScores, index++);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = GENERATE_QUIETS;
+                    break;
+                case GENERATE_QUIETS:
+                    quiets.clear();
+                    board.quietMoves(board.sideToMove(), quiets);
+                    for (int i = 0; i < quiets.size(); i++) {
+                        quietScores[i] = order.quietScore(board, quiets.get(i));
+                    }
+                    index = 0;
+                    stage = QUIETS;
+                    break;
+                case QUIETS:
+                    if (index < quiets.size()) {
+                        int move = pick(quiets, quietScores, index++);
+                        if (move != hashMove && move != killers[0] &&
+                            move != killers[1]) {
+
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = DONE;
+                    break;
+                case EVASIONS:
+                    if (index < captures.size()) {
+                        int move = order.next(captures, ply, index++);
+                        if (move != hashMove) {
+                            return move;
+                        }
+                        break;
+                    }
+                    stage = DONE;
+                    break;
+                default:
+                    return IntMove.NONE;
+            }
+        }
+    }
+
+    /**
+     * Bring the best remaining move of a list to the given index.
+     *
+     * @param moves  the list
+     * @param scores the moves' scores
+     * @param from   number of moves already handed out
+     * @return       the best move not yet handed out
+     */
+    private static int pick(final IntMoveList moves, final int[] scores,
+                            final int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            moves.swap(from, best);
+            int tmp = scores[from];
+            scores[from] = scores[best];
+            scores[best] = tmp;
+        }
+        return moves.get(from);
+    }
+}
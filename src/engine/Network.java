@@ -0,0 +1,193 @@
+package src.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import src.Bitboards;
+import src.Piece;
+
+/**
+ * Quantized weights of an efficiently updatable neural network.
+ *
+ * The network has 768 inputs, one for each piece index on each square,
+ * which feed a hidden layer of int16 accumulators. There are two sets
+ * of accumulators, one for each side's point of view, sharing the same
+ * weights: black's sees the board mirrored with the colours swapped.
+ * The output is a dot product of both sets, the side to move's first,
+ * after clipping them to 0 .. QA, with the output weights.
+ *
+ * Weights are read from a binary file, all values little endian:
+ * <pre>
+ *   int32  MAGIC ("SNN1")
+ *   int32  hidden layer size H
+ *   int16  input weights, 768 columns of H, feature-major
+ *   int16  input biases, H
+ *   int16  output weights, 2 * H, side to move first
+ *   int32  output bias
+ * </pre>
+ * The trainer must keep the sum of the output products within 32
+ * bits.
+ */
+public final class Network {
+
+    /** First four bytes of a network file. */
+    public static final int MAGIC = 0x314E4E53;
+
+    /** Number of inputs. */
+    public static final int INPUTS = Piece.TYPES * 2 * Bitboards.SQUARES;
+
+    /** Largest hidden layer accepted. */
+    public static final int MAX_HIDDEN = 4096;
+
+    /** Quantization of the hidden layer: 1.0 is QA. */
+    static final int QA = 255;
+
+    /** Quantization of the output weights: 1.0 is QB. */
+    static final int QB = 64;
+
+    /** Centipawns per unit of network output. */
+    static final int SCALE = 400;
+
+    /** Size of the hidden layer. */
+    private final int hidden;
+
+    /** Input weights, one column of hidden values per input. */
+    private final short[] inputWeights;
+
+    /** Hidden layer biases. */
+    private final short[] inputBias;
+
+    /** Output weights, side to move's half first. */
+    private final short[] outputWeights;
+
+    /** Output bias. */
+    private final int outputBias;
+
+    /**
+     * Create a network from its weights. The arrays are not copied.
+     *
+     * @param size    hidden layer size
+     * @param weights input weights, INPUTS columns of size values
+     * @param biases  hidden layer biases
+     * @param output  output weights, 2 * size values
+     * @param bias    output bias
+     */
+    public Network(final int size, final short[] weights, final short[] biases,
+                   final short[] output, final int bias) {
+        if (size < 1 || size > MAX_HIDDEN) {
+            throw new IllegalArgumentException("Bad hidden size: " + size);
+        }
+        if (weights.length != INPUTS * size || biases.length != size ||
+            output.length != 2 * size) {
+
+            throw new IllegalArgumentException("Weights do not fit size " + size);
+        }
+        hidden = size;
+        inputWeights = weights;
+        inputBias = biases;
+        outputWeights = output;
+        outputBias = bias;
+    }
+
+    /**
+     * Read a network file.
+     *
+     * @param file the file
+     * @return     the network
+     * @throws IOException if the file cannot be read or is not a
+     *                     network of a supported size
+     */
+    public static Network load(final Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file))
+                                  .order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not a network file: " + file);
+        }
+        int size = in.getInt();
+        if (size < 1 || size > MAX_HIDDEN) {
+            throw new IOException("Bad hidden size " + size + " in " + file);
+        }
+        long expected = (long) Short.BYTES * (INPUTS * size + size + 2 * size)
+            + Integer.BYTES;
+        if (in.remaining() != expected) {
+            throw new IOException("Wrong length for hidden size " + size
+                                  + ": " + file);
+        }
+        short[] weights = new short[INPUTS * size];
+        short[] biases = new short[size];
+        short[] output = new short[2 * size];
+        in.asShortBuffer().get(weights).get(biases).get(output);
+        in.position(in.position() + Short.BYTES * (weights.length
+                                                   + biases.length
+                                                   + output.length));
+        return new Network(size, weights, biases, output, in.getInt());
+    }
+
+    /**
+     * Write the network in the format read by load().
+     *
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public void save(final Path file) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(2 * Integer.BYTES
+            + Short.BYTES * (inputWeights.length + inputBias.length
+                             + outputWeights.length)
+            + Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(hidden);
+        out.asShortBuffer().put(inputWeights).put(inputBias).put(outputWeights);
+        out.position(out.position() + Short.BYTES * (inputWeights.length
+                                                     + inputBias.length
+                                                     + outputWeights.length));
+        out.putInt(outputBias);
+        Files.write(file, out.array());
+    }
+
+    /**
+     * Get the size of the hidden layer.
+     *
+     * @return number of accumulators per side
+     */
+    public int hidden() {
+        return hidden;
+    }
+
+    /**
+     * Get the input weights.
+     *
+     * @return INPUTS columns of hidden() values; not to be changed
+     */
+    short[] inputWeights() {
+        return inputWeights;
+    }
+
+    /**
+     * Get the hidden layer biases.
+     *
+     * @return hidden() values; not to be changed
+     */
+    short[] inputBias() {
+        return inputBias;
+    }
+
+    /**
+     * Get the output weights.
+     *
+     * @return 2 * hidden() values; not to be changed
+     */
+    short[] outputWeights() {
+        return outputWeights;
+    }
+
+    /**
+     * Get the output bias.
+     *
+     * @return the bias
+     */
+    int outputBias() {
+        return outputBias;
+    }
+}
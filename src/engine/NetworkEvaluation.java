@@ -0,0 +1,163 @@
+package src.engine;
+
+import src.Bitboards;
+import src.Board;
+import src.Piece;
+import src.PieceListener;
+
+/**
+ * Evaluation by a Network whose hidden layer follows the board.
+ *
+ * Once attached, the evaluation listens to the board and adds or
+ * subtracts the input weight column of every piece put on or taken
+ * off, for both points of view, so a move costs a few column updates
+ * rather than a pass over the whole input layer. Evaluating a position
+ * then only takes the output layer. Nothing is allocated after
+ * construction.
+ *
+ * An instance follows one board on one thread.
+ */
+public final class NetworkEvaluation implements PieceListener {
+
+    /** The network. */
+    private final Network network;
+
+    /** Kernel for the column updates and the output layer. */
+    private final DotKernel kernel;
+
+    /** Size of the hidden layer. */
+    private final int hidden;
+
+    /** Hidden layer from white's point of view, then black's. */
+    private final short[][] accumulators;
+
+    /** Clipped hidden layer, side to move's first, for the output. */
+    private final short[] active;
+
+    /**
+     * Create an evaluation with the kernel chosen at startup.
+     *
+     * @param net the network
+     */
+    public NetworkEvaluation(final Network net) {
+        this(net, Kernels.preferred());
+    }
+
+    /**
+     * Create an evaluation with the given kernel.
+     *
+     * @param net the network
+     * @param dot the kernel
+     */
+    public NetworkEvaluation(final Network net, final DotKernel dot) {
+        network = net;
+        kernel = dot;
+        hidden = net.hidden();
+        accumulators = new short[2][hidden];
+        active = new short[2 * hidden];
+    }
+
+    /**
+     * Follow a board from its current position on.
+     *
+     * @param board the board
+     */
+    public void attach(final Board board) {
+        board.setPieceListener(this);
+        refresh(board);
+    }
+
+    /**
+     * Stop following a board.
+     *
+     * @param board the board attached to
+     */
+    public void detach(final Board board) {
+        board.setPieceListener(null);
+    }
+
+    /**
+     * Recompute the hidden layer from scratch, as needed after a board
+     * has been cleared.
+     *
+     * @param board the board
+     */
+    public void refresh(final Board board) {
+        for (short[] acc : accumulators) {
+            System.arraycopy(network.inputBias(), 0, acc, 0, hidden);
+        }
+        for (long bb = board.occupancy(); bb != 0; bb &= bb - 1) {
+            int sq = Bitboards.first(bb);
+            pieceAdded(board.getPiece(sq).getIndex(), sq);
+        }
+    }
+
+    @Override
+    public void pieceAdded(final int index, final int sq) {
+        short[] weights = network.inputWeights();
+        kernel.add(accumulators[0], weights, column(index, sq), hidden);
+        kernel.add(accumulators[1], weights, column(mirror(index), sq ^ 56),
+                   hidden);
+    }
+
+    @Override
+    public void pieceRemoved(final int index, final int sq) {
+        short[] weights = network.inputWeights();
+        kernel.subtract(accumulators[0], weights, column(index, sq), hidden);
+        kernel.subtract(accumulators[1], weights, column(mirror(index), sq ^ 56),
+                        hidden);
+    }
+
+    /**
+     * Evaluate the followed board's position.
+     *
+     * @param side side to move
+     * @return     score in centipawns for the side to move, short of
+     *             the mate scores
+     */
+    public int evaluate(final Piece.Side side) {
+        short[] us = accumulators[side.index()];
+        short[] them = accumulators[1 - side.index()];
+        for (int i = 0; i < hidden; i++) {
+            active[i] = clip(us[i]);
+            active[hidden + i] = clip(them[i]);
+        }
+        long sum = (long) kernel.dot(active, network.outputWeights(), 2 * hidden)
+            + network.outputBias();
+        long score = sum * Network.SCALE / (Network.QA * Network.QB);
+        int limit = Search.MATE_BOUND - 1;
+        return (int) Math.max(-limit, Math.min(limit, score));
+    }
+
+    /**
+     * Clipped ReLU of a hidden value.
+     *
+     * @param value accumulator value
+     * @return      value limited to 0 .. QA
+     */
+    private static short clip(final short value) {
+        return (short) Math.max(0, Math.min(Network.QA, value));
+    }
+
+    /**
+     * Start of the input weight column of a piece on a square.
+     *
+     * @param index piece index
+     * @param sq    square index
+     * @return      index into the input weights
+     */
+    private int column(final int index, final int sq) {
+        return (index * Bitboards.SQUARES + sq) * hidden;
+    }
+
+    /**
+     * Piece index of the same piece type with the other colour.
+     *
+     * @param index piece index
+     * @return      the other side's index
+     */
+    private static int mirror(final int index) {
+        return (index < Piece.TYPES) ? index + Piece.TYPES
+                                     : index - Piece.TYPES;
+    }
+}
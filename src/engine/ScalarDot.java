@@ -0,0 +1,32 @@
+package src.engine;
+
+/**
+ * Plain loop kernels, used when the Vector API is not available.
+ */
+public final class ScalarDot implements DotKernel {
+
+    @Override
+    public int dot(final short[] a, final short[] b, final int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void add(final short[] acc, final short[] values, final int offset,
+                    final int length) {
+        for (int i = 0; i < length; i++) {
+            acc[i] += values[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(final short[] acc, final short[] values,
+                         final int offset, final int length) {
+        for (int i = 0; i < length; i++) {
+            acc[i] -= values[offset + i];
+        }
+    }
+}
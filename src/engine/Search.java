@@ -0,0 +1,790 @@
+package src.engine;
+
+import src.Board;
+import src.IntMove;
+import src.IntMoveList;
+import src.MoveStack;
+import src.Piece;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Iterative deepening alpha-beta search.
+ *
+ * The search is a negamax with principal variation search: the first
+ * move of each node is searched with the full window and the others
+ * with a null window around alpha, re-searching only those that turn
+ * out better. Each iteration goes one ply deeper than the last and
+ * starts with an aspiration window around the previous score. Results
+ * go to a transposition table, whose best moves are tried first on
+ * the next visit, which is what makes the repeated iterations cheap.
+ * The remaining moves are handed out by a MovePicker in MoveOrder's
+ * order, generating the quiet ones only if nothing earlier cut the
+ * node off. At the horizon a
+ * quiescence search follows the captures until the position is quiet.
+ *
+ * Three selective techniques cut the tree down further, each of which
+ * can be switched off: null move pruning, which gives up a turn and
+ * prunes the node if a reduced search still fails high; late move
+ * reductions, which search quiet moves late in the order less deeply
+ * unless they turn out better than expected; and futility pruning,
+ * which near the horizon drops nodes and quiet moves whose static
+ * evaluation is too far from the window to matter.
+ *
+ * A Search works on its own Board and is not thread safe, but several
+ * searches may share one TranspositionTable, which is how LazySmp
+ * runs them in parallel.
+ */
+public final class Search {
+
+    /** Larger than any score. */
+    public static final int INFINITY = 32000;
+
+    /** Score of delivering mate now; mate in n plies is MATE - n. */
+    public static final int MATE = 31000;
+
+    /** Scores beyond this are mates. */
+    public static final int MATE_BOUND = MATE - MoveStack.MAX_PLY;
+
+    /** Deepest iteration. */
+    public static final int MAX_DEPTH = MoveStack.MAX_PLY - 1;
+
+    /** Half width of the first aspiration window. */
+    static final int ASPIRATION = 50;
+
+    /** First iteration searched with an aspiration window. */
+    static final int ASPIRATION_DEPTH = 4;
+
+    /** Margin for captures that cannot raise alpha in quiescence. */
+    private static final int DELTA_MARGIN = 200;
+
+    /** Smallest depth at which a null move is tried. */
+    static final int NULL_MOVE_DEPTH = 3;
+
+    /** Depth reduction of the null move search. */
+    static final int NULL_MOVE_REDUCTION = 2;
+
+    /** Smallest depth at which late moves are reduced. */
+    static final int LMR_DEPTH = 3;
+
+    /** Moves searched at full depth before the reductions start. */
+    static final int LMR_MOVES = 3;
+
+    /** Moves after which the reduction grows to two plies. */
+    private static final int LMR_LATE_MOVES = 6;
+
+    /** Largest remaining depth for futility pruning. */
+    private static final int FUTILITY_DEPTH = 3;
+
+    /** Futility margin per ply of remaining depth. */
+    private static final int FUTILITY_MARGIN = 150;
+
+    /**
+     * Plies of the game before the root checked for repetitions; one
+     * further back would need a hundred reversible plies in between,
+     * which the fifty move rule already draws.
+     */
+    private static final int GAME_PLIES = 100;
+
+    /** The clock is read every this many nodes, plus one. */
+    private static final int CHECK_INTERVAL = 2047;
+
+    /** The position being searched. */
+    private final Board board;
+
+    /** Shared table of earlier results. */
+    private final TranspositionTable table;
+
+    /** Move lists, one per ply. */
+    private final MoveStack stack = new MoveStack();
+
+    /** Move ordering heuristics, kept from one iteration to the next. */
+    private final MoveOrder order = new MoveOrder();
+
+    /** Staged move pickers, one per ply, created when first needed. */
+    private final MovePicker[] pickers = new MovePicker[MoveStack.MAX_PLY];
+
+    /** Hash of each position on the current path, by ply. */
+    private final long[] path = new long[MoveStack.MAX_PLY + 1];
+
+    /** Hashes of the game's positions before the root, oldest first. */
+    private final long[] game = new long[GAME_PLIES];
+
+    /** Number of entries in game. */
+    private int gameLength;
+
+    /** Network evaluation following the board, or null for Evaluation. */
+    private NetworkEvaluation network;
+
+    /** Mobility evaluation, or null for Evaluation. */
+    private MobilityEvaluation mobility;
+
+    /** Whether null move pruning is used. */
+    private boolean nullMove = true;
+
+    /** Whether late move reductions are used. */
+    private boolean reductions = true;
+
+    /** Whether futility pruning is used. */
+    private boolean futility = true;
+
+    /** First iteration depth. */
+    private int firstDepth = 1;
+
+    /** Condition shared with other searches that stops them, or null. */
+    private BooleanSupplier abort;
+
+    /** Set to abandon the search. */
+    private volatile boolean stopped;
+
+    /** System.nanoTime() at which to stop, or Long.MAX_VALUE. */
+    private long deadline;
+
+    /** Positions visited. */
+    private long nodes;
+
+    /** Best move of the deepest finished iteration. */
+    private int bestMove;
+
+    /** Score of the deepest finished iteration. */
+    private int bestScore;
+
+    /** Depth of the deepest finished iteration. */
+    private int completedDepth;
+
+    /** Best root move found so far in the current iteration. */
+    private int rootMove;
+
+    /**
+     * Create a search of the given board.
+     *
+     * @param position the board, which the search changes while running
+     * @param tt       transposition table
+     */
+    public Search(final Board position, final TranspositionTable tt) {
+        board = position;
+        table = tt;
+    }
+
+    /**
+     * Switch null move pruning on or off.
+     *
+     * @param enabled true to use it
+     */
+    public void setNullMove(final boolean enabled) {
+        nullMove = enabled;
+    }
+
+    /**
+     * Switch late move reductions on or off.
+     *
+     * @param enabled true to use them
+     */
+    public void setReductions(final boolean enabled) {
+        reductions = enabled;
+    }
+
+    /**
+     * Switch futility pruning on or off.
+     *
+     * @param enabled true to use it
+     */
+    public void setFutility(final boolean enabled) {
+        futility = enabled;
+    }
+
+    /**
+     * Switch the mobility and king attack terms of MobilityEvaluation
+     * on or off. A network set with setNetwork() takes precedence.
+     *
+     * @param enabled true to evaluate with MobilityEvaluation
+     */
+    public void setMobility(final boolean enabled) {
+        mobility = enabled ? new MobilityEvaluation() : null;
+    }
+
+    /**
+     * Evaluate positions with a network rather than with Evaluation.
+     * The network follows the board as it moves from now on, so the
+     * board must not be cleared or set up again while it is in use.
+     *
+     * @param net the network, or null to go back to Evaluation and
+     *            stop following the board
+     */
+    public void setNetwork(final Network net) {
+        if (network != null) {
+            network.detach(board);
+            network = null;
+        }
+        if (net != null) {
+            network = new NetworkEvaluation(net);
+            network.attach(board);
+        }
+    }
+
+    /**
+     * Determine if null move pruning is used.
+     *
+     * @return true if switched on
+     */
+    boolean usesNullMove() {
+        return nullMove;
+    }
+
+    /**
+     * Determine if late move reductions are used.
+     *
+     * @return true if switched on
+     */
+    boolean usesReductions() {
+        return reductions;
+    }
+
+    /**
+     * Start iterative deepening at a depth other than one, so that
+     * parallel searches of the same position spread over two depths.
+     *
+     * @param depth first iteration depth
+     */
+    void setFirstDepth(final int depth) {
+        firstDepth = depth;
+    }
+
+    /**
+     * Share a stop condition with other searches. Unlike stop(), the
+     * condition is not cleared by run(), so it cannot be missed by a
+     * search that has not started yet. It is tested as often as the
+     * clock.
+     *
+     * @param flag the shared condition, or null for none
+     */
+    void setAbort(final BooleanSupplier flag) {
+        abort = flag;
+    }
+
+    /**
+     * Search a position below the root for a parallel search, which
+     * runs the iterations and the root itself. The positions on the
+     * path from the root must have been given to trace().
+     *
+     * @param depth remaining depth
+     * @param ply   distance from the root, at least one
+     * @param alpha lower bound of the window
+     * @param beta  upper bound of the window
+     * @param nullOk whether a null move may be tried
+     * @param until System.nanoTime() at which to stop
+     * @return      score for the side to move, meaningless if stopped
+     */
+    int searchNode(final int depth, final int ply, final int alpha,
+                   final int beta, final boolean nullOk, final long until) {
+        stopped = false;
+        deadline = until;
+        return search(depth, ply, alpha, beta, nullOk);
+    }
+
+    /**
+     * Record the hash of a position on the path from the root, for
+     * repetition detection.
+     *
+     * @param ply  distance from the root
+     * @param hash the position's hash
+     */
+    void trace(final int ply, final long hash) {
+        path[ply] = hash;
+    }
+
+    /**
+     * Determine if the search has been stopped.
+     *
+     * @return true once stopped, until the next search starts
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Search the board's position for the side to move.
+     *
+     * @param maxDepth deepest iteration, at most MAX_DEPTH
+     * @param millis   time budget in milliseconds, or 0 for none
+     * @return         best move found, or IntMove.NONE if there is none
+     */
+    public int run(final int maxDepth, final long millis) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Bad depth: " + maxDepth);
+        }
+        stopped = false;
+        deadline = (millis > 0) ? System.nanoTime() + millis * 1000000L
+                                : Long.MAX_VALUE;
+        nodes = 0;
+        rememberGame();
+        bestMove = IntMove.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+        order.newSearch();
+
+        IntMoveList root = new IntMoveList();
+        board.legalMoves(board.sideToMove(), root);
+        if (root.isEmpty()) {
+            return IntMove.NONE;
+        }
+        bestMove = root.get(0);
+
+        int score = 0;
+        for (int depth = Math.min(firstDepth, maxDepth);
+             depth <= maxDepth && !stopped; depth++) {
+            score = aspiration(depth, score);
+            if (stopped) {
+                /* a move that beat the previous best is still usable */
+                if (rootMove != IntMove.NONE) {
+                    bestMove = rootMove;
+                }
+                break;
+            }
+            bestMove = rootMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Search one iteration, starting with a narrow window around the
+     * previous score and widening it until the score falls inside.
+     *
+     * @param depth iteration depth
+     * @param guess score of the previous iteration
+     * @return      score of this iteration
+     */
+    private int aspiration(final int depth, final int guess) {
+        int delta = ASPIRATION;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        if (depth >= ASPIRATION_DEPTH) {
+            alpha = Math.max(guess - delta, -INFINITY);
+            beta = Math.min(guess + delta, INFINITY);
+        }
+        while (true) {
+            rootMove = IntMove.NONE;
+            int score = search(depth, 0, alpha, beta, false);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - delta, -INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(score + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Negamax search of the current position.
+     *
+     * @param depth remaining depth
+     * @param ply   distance from the root
+     * @param alpha lower bound of the window
+     * @param beta  upper bound of the window
+     * @param nullOk whether a null move may be tried, which is not the
+     *              case at the root or right after another null move
+     * @return      score of the position for the side to move
+     */
+    private int search(final int depth, final int ply, final int alpha,
+                       final int beta, final boolean nullOk) {
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        if (visit()) {
+            return 0;
+        }
+        long hash = board.hash();
+        path[ply] = hash;
+        if (ply > 0 && repeated(ply)) {
+            return 0;
+        }
+        if (ply >= MAX_DEPTH) {
+            return evaluate();
+        }
+
+        boolean pv = beta - alpha > 1;
+        long entry = table.probe(hash);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != 0 && ply > 0 && !pv &&
+            TranspositionTable.depth(entry) >= depth) {
+
+            int stored = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT ||
+                (bound == TranspositionTable.LOWER && stored >= beta) ||
+                (bound == TranspositionTable.UPPER && stored <= alpha)) {
+
+                return stored;
+            }
+        }
+
+        Piece.Side side = board.sideToMove();
+        boolean inCheck = board.check(side);
+        boolean futile = false;
+        if (!pv && !inCheck && Math.abs(beta) < MATE_BOUND) {
+            int eval = evaluate();
+            if (futility && depth <= FUTILITY_DEPTH &&
+                eval - FUTILITY_MARGIN * depth >= beta) {
+
+                /* so far ahead that no reply is likely to catch up */
+                return eval - FUTILITY_MARGIN * depth;
+            }
+            if (nullMove && nullOk && depth >= NULL_MOVE_DEPTH &&
+                eval >= beta && hasPieces(board, side)) {
+
+                board.makeNullMove();
+                int score = -search(depth - 1 - NULL_MOVE_REDUCTION, ply + 1,
+                                    -beta, -beta + 1, false);
+                board.undoNullMove();
+                if (stopped) {
+                    return 0;
+                }
+                if (score >= beta) {
+                    /* an unproven mate from a null move is not trusted */
+                    return (score >= MATE_BOUND) ? beta : score;
+                }
+            }
+            futile = futility && depth <= FUTILITY_DEPTH &&
+                eval + FUTILITY_MARGIN * depth <= alpha;
+        }
+
+        MovePicker picker = picker(ply);
+        picker.start(board, ply, (ply == 0) ? bestMove : hashMove, inCheck);
+
+        int a = alpha;
+        int best = -INFINITY;
+        int bestLocal = IntMove.NONE;
+        int i = 0;
+        for (int move = picker.next(); move != IntMove.NONE;
+             move = picker.next(), i++) {
+
+            boolean quiet = !MoveOrder.isTactical(board, move);
+            board.make(move);
+            boolean checks = quiet && board.check(board.sideToMove());
+            if (futile && i > 0 && quiet && !checks) {
+                board.unmake();
+                continue;
+            }
+            int score;
+            if (i == 0) {
+                score = -search(depth - 1, ply + 1, -beta, -a, true);
+            } else {
+                int r = 0;
+                if (reductions && depth >= LMR_DEPTH && i >= LMR_MOVES &&
+                    quiet && !inCheck && !checks) {
+
+                    r = reduction(depth, i);
+                }
+                score = -search(depth - 1 - r, ply + 1, -a - 1, -a, true);
+                if (r > 0 && score > a) {
+                    score = -search(depth - 1, ply + 1, -a - 1, -a, true);
+                }
+                if (score > a && score < beta) {
+                    score = -search(depth - 1, ply + 1, -beta, -a, true);
+                }
+            }
+            board.unmake();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestLocal = move;
+                if (score > a) {
+                    a = score;
+                    if (ply == 0) {
+                        rootMove = move;
+                    }
+                    if (score >= beta) {
+                        if (quiet) {
+                            order.cutoff(board, move, ply, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        if (bestLocal == IntMove.NONE) {
+            /* the picker had no move at all */
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER
+            : (best > alpha) ? TranspositionTable.EXACT
+            : TranspositionTable.UPPER;
+        table.store(hash, bestLocal, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Get the move picker of a ply.
+     *
+     * @param ply distance from the root
+     * @return    the picker
+     */
+    private MovePicker picker(final int ply) {
+        if (pickers[ply] == null) {
+            pickers[ply] = new MovePicker(order);
+        }
+        return pickers[ply];
+    }
+
+    /**
+     * Search captures and promotions until the position is quiet.
+     *
+     * The side to move may also "stand pat" on the static evaluation,
+     * since it is not forced to capture, unless it is in check, in
+     * which case every evasion is searched. Captures that could not
+     * bring the score up to alpha even with a margin are skipped, and
+     * so are those that static exchange evaluation says lose material.
+     *
+     * @param ply   distance from the root
+     * @param alpha lower bound of the window
+     * @param beta  upper bound of the window
+     * @return      score of the position for the side to move
+     */
+    private int quiesce(final int ply, final int alpha, final int beta) {
+        if (visit()) {
+            return 0;
+        }
+        int standPat = evaluate();
+        if (ply >= MAX_DEPTH) {
+            return standPat;
+        }
+        boolean inCheck = board.check(board.sideToMove());
+        int a = alpha;
+        int best = -INFINITY;
+        if (!inCheck) {
+            if (standPat >= beta) {
+                return standPat;
+            }
+            best = standPat;
+            a = Math.max(a, standPat);
+        }
+
+        IntMoveList moves = stack.get(ply);
+        board.captureMoves(board.sideToMove(), moves);
+        if (inCheck && moves.isEmpty()) {
+            return -MATE + ply;
+        }
+        order.score(board, moves, ply, IntMove.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = order.next(moves, ply, i);
+            if (!inCheck && IntMove.kind(move) != IntMove.PROMOTION &&
+                standPat + captured(move) + DELTA_MARGIN <= a) {
+
+                continue;
+            }
+            if (!inCheck && board.see(move) < 0) {
+                /* loses material whatever follows */
+                continue;
+            }
+            board.make(move);
+            int score = -quiesce(ply + 1, -beta, -a);
+            board.unmake();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > a) {
+                    a = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Value of the piece a move captures.
+     *
+     * @param move the move, before it is made
+     * @return     value in centipawns, 0 if nothing is captured
+     */
+    private int captured(final int move) {
+        if (IntMove.kind(move) == IntMove.EN_PASSANT) {
+            return Evaluation.value(Piece.PEDONE);
+        }
+        Piece victim = board.getPiece(IntMove.to(move));
+        return (victim == null) ? 0 : Evaluation.value(victim.getType());
+    }
+
+    /**
+     * Evaluate the current position for the side to move.
+     *
+     * @return score in centipawns
+     */
+    int evaluate() {
+        if (network != null) {
+            return network.evaluate(board.sideToMove());
+        }
+        return (mobility != null) ? mobility.evaluate(board)
+                                  : Evaluation.evaluate(board);
+    }
+
+    /**
+     * Determine if a side has anything besides pawns and its king. With
+     * only those left, zugzwang is common enough that passing is not a
+     * safe lower bound.
+     *
+     * @param board the position
+     * @param side  the side
+     * @return      true if it has a knight, bishop, rook or queen
+     */
+    static boolean hasPieces(final Board board, final Piece.Side side) {
+        return (board.occupancy(side) & ~board.pieces(side, Piece.PEDONE)
+                & ~board.pieces(side, Piece.RE)) != 0;
+    }
+
+    /**
+     * Depth reduction of a late quiet move.
+     *
+     * @param depth remaining depth of the node
+     * @param index the move's place in the order
+     * @return      plies to reduce by
+     */
+    static int reduction(final int depth, final int index) {
+        return (index >= LMR_LATE_MOVES && depth > LMR_DEPTH) ? 2 : 1;
+    }
+
+    /**
+     * Count a node and check the clock now and then.
+     *
+     * @return true if the search has been stopped
+     */
+    private boolean visit() {
+        if ((++nodes & CHECK_INTERVAL) == 0 &&
+            (System.nanoTime() > deadline || (abort != null && abort.getAsBoolean()))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Take the positions played before the root from the board's
+     * history, so that repeating one of them counts as a draw. The
+     * board must be at the root.
+     */
+    void rememberGame() {
+        int count = board.moveCount();
+        gameLength = Math.min(count, GAME_PLIES);
+        for (int i = 0; i < gameLength; i++) {
+            game[i] = board.hashAt(count - gameLength + i);
+        }
+    }
+
+    /**
+     * Determine if the position at a ply already occurred on the path
+     * or earlier in the game with the same side to move, which is
+     * scored as a draw.
+     *
+     * @param ply distance from the root
+     * @return    true if repeated
+     */
+    boolean repeated(final int ply) {
+        int i = ply - 2;
+        for (; i >= 0; i -= 2) {
+            if (path[i] == path[ply]) {
+                return true;
+            }
+        }
+        /* i is now -2 or -1: the same side moved that many plies
+         * before the root */
+        for (int j = gameLength + i; j >= 0; j -= 2) {
+            if (game[j] == path[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Convert a score for storage, making mate scores relative to the
+     * stored position rather than the root.
+     *
+     * @param score score relative to the root
+     * @param ply   distance from the root
+     * @return      score relative to the position
+     */
+    static int toTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        } else if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Convert a stored score back to one relative to the root.
+     *
+     * @param score score relative to the position
+     * @param ply   distance from the root
+     * @return      score relative to the root
+     */
+    static int fromTable(final int score, final int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        } else if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Abandon the search as soon as possible. May be called from any
+     * thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Get the best move of the last run().
+     *
+     * @return encoded move, or IntMove.NONE
+     */
+    public int bestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Get the score of the deepest finished iteration.
+     *
+     * @return score in centipawns for the side to move
+     */
+    public int score() {
+        return bestScore;
+    }
+
+    /**
+     * Get the depth of the deepest finished iteration.
+     *
+     * @return depth in plies
+     */
+    public int depth() {
+        return completedDepth;
+    }
+
+    /**
+     * Get the number of positions visited by the last run().
+     *
+     * @return node count
+     */
+    public long nodes() {
+        return nodes;
+    }
+}
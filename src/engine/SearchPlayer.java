@@ -0,0 +1,197 @@
+package src.engine;
+
+import src.Board;
+import src.Game;
+import src.IntMove;
+import src.Move;
+import src.Piece;
+import src.Player;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+/**
+ * Computer player that picks its moves with a Search.
+ *
+ * Each turn is searched to the configured depth or until the time
+ * budget runs out, whichever comes first. The transposition table is
+ * kept from one turn to the next, since most of what was searched
+ * for the previous move is still relevant. With more than one thread
+ * the turn is searched in parallel, by LazySmp or by YbwSearch.
+ * Positions are evaluated by a Network if one is set, or loaded from
+ * the file named by the NETWORK_PROPERTY system property; otherwise by
+ * MobilityEvaluation if switched on, by default with the
+ * MOBILITY_PROPERTY system property, and otherwise by Evaluation.
+ */
+public class SearchPlayer implements Player {
+
+    /** Ways of searching with more than one thread. */
+    public enum Parallel {
+        /** Independent searches sharing the table (LazySmp). */
+        LAZY_SMP,
+        /** Fork/join of sibling moves (YbwSearch). */
+        YOUNG_BROTHERS_WAIT
+    }
+
+    /** This class's Logger. */
+    private static final Logger LOG =
+        Logger.getLogger("src.engine.SearchPlayer");
+
+    /** Default time budget per move, in milliseconds. */
+    public static final long DEFAULT_TIME = 1000;
+
+    /** Default transposition table size, in MB. */
+    public static final int DEFAULT_TABLE = 32;
+
+    /** Default number of search threads. */
+    public static final int DEFAULT_THREADS = 1;
+
+    /** System property naming a network file to evaluate with. */
+    public static final String NETWORK_PROPERTY = "src.engine.network";
+
+    /** System property that switches MobilityEvaluation on. */
+    public static final String MOBILITY_PROPERTY = "src.engine.mobility";
+
+    /** The game, for status messages; may be null. */
+    private final Game game;
+
+    /** Deepest iteration per move. */
+    private final int depth;
+
+    /** Time budget per move in milliseconds, or 0 for none. */
+    private final long time;
+
+    /** Number of search threads. */
+    private final int threads;
+
+    /** How the threads share the work. */
+    private final Parallel mode;
+
+    /** Workers of the fork/join search, or null. */
+    private final ForkJoinPool pool;
+
+    /** Table shared by this player's searches. */
+    private final TranspositionTable table;
+
+    /** Network to evaluate with, or null for Evaluation. */
+    private Network network;
+
+    /** Whether to evaluate with MobilityEvaluation. */
+    private boolean mobility = Boolean.getBoolean(MOBILITY_PROPERTY);
+
+    /**
+     * Create a player with the default budget.
+     *
+     * @param owner the game, for status messages; may be null
+     */
+    public SearchPlayer(final Game owner) {
+        this(owner, Search.MAX_DEPTH, DEFAULT_TIME, DEFAULT_TABLE,
+             DEFAULT_THREADS, Parallel.LAZY_SMP);
+    }
+
+    /**
+     * Create a player with the given budget.
+     *
+     * @param owner     the game, for status messages; may be null
+     * @param maxDepth  deepest iteration per move
+     * @param millis    time budget per move, or 0 for none
+     * @param megabytes transposition table size in MB
+     * @param count     number of search threads
+     * @param parallel  how the threads share the work
+     */
+    public SearchPlayer(final Game owner, final int maxDepth,
+                        final long millis, final int megabytes,
+                        final int count, final Parallel parallel) {
+        if (maxDepth < 1 || maxDepth > Search.MAX_DEPTH) {
+            throw new IllegalArgumentException("Bad depth: " + maxDepth);
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Bad thread count: " + count);
+        }
+        game = owner;
+        depth = maxDepth;
+        time = millis;
+        threads = count;
+        mode = parallel;
+        pool = (parallel == Parallel.YOUNG_BROTHERS_WAIT)
+            ? new ForkJoinPool(count) : null;
+        table = new TranspositionTable(megabytes);
+        String file = System.getProperty(NETWORK_PROPERTY);
+        if (file != null) {
+            try {
+                network = Network.load(Paths.get(file));
+            } catch (IOException e) {
+                LOG.warning("Cannot load network, using Evaluation: "
+                            + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Switch MobilityEvaluation on or off from the next turn on.
+     *
+     * @param enabled true to evaluate with it
+     */
+    public void setMobility(final boolean enabled) {
+        mobility = enabled;
+    }
+
+    /**
+     * Set the network to evaluate with from the next turn on.
+     *
+     * @param net the network, or null for Evaluation
+     */
+    public void setNetwork(final Network net) {
+        network = net;
+    }
+
+    @Override
+    public Move takeTurn(final Board board, final Piece.Side side) {
+        if (board.sideToMove() != side) {
+            throw new IllegalArgumentException("Not " + side + "'s turn");
+        }
+        table.newSearch();
+        long start = System.nanoTime();
+        int move;
+        int reached;
+        int score;
+        long nodes;
+        if (mode == Parallel.YOUNG_BROTHERS_WAIT) {
+            YbwSearch search = new YbwSearch(board, table, pool);
+            search.setMobility(mobility);
+            search.setNetwork(network);
+            move = search.run(depth, time);
+            reached = search.depth();
+            score = search.score();
+            nodes = search.nodes();
+        } else {
+            LazySmp search = new LazySmp(board, table, threads);
+            search.setMobility(mobility);
+            search.setNetwork(network);
+            try {
+                move = search.run(depth, time);
+            } finally {
+                /* the main search's network follows the game's board */
+                search.setNetwork(null);
+            }
+            reached = search.depth();
+            score = search.score();
+            nodes = search.nodes();
+        }
+        long elapsed = (System.nanoTime() - start) / 1000000L;
+        if (move == IntMove.NONE) {
+            return null;
+        }
+        String report = String.format("%s: depth %d, score %d, %d nodes, %d ms",
+                                      IntMove.toString(move), reached, score,
+                                      nodes, elapsed);
+        if (game != null) {
+            game.setStatus(report);
+        } else {
+            LOG.info(report);
+        }
+        return IntMove.toMove(board, move);
+    }
+}
@@ -0,0 +1,260 @@
+package src.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table shared by search threads.
+ *
+ * The table is one preallocated long array. Each entry takes two
+ * longs: the packed data (move, score, depth, bound and age) and the
+ * position hash XORed with that data. Threads read and write entries
+ * without any locking; if two threads write the same entry at once
+ * and the halves end up from different writes, the XOR no longer
+ * gives back the hash, so probe() treats it as a miss rather than
+ * returning another position's data.
+ *
+ * Entries are grouped in buckets of four, which fill a 64 byte cache
+ * line. A new entry replaces the same position if present, and
+ * otherwise the shallowest entry of the bucket, where entries left
+ * over from earlier searches count as shallower the older they are.
+ */
+public final class TranspositionTable {
+
+    /** No entry. */
+    public static final int NONE = 0;
+
+    /** The score is at most the stored value (failed low). */
+    public static final int UPPER = 1;
+
+    /** The score is at least the stored value (failed high). */
+    public static final int LOWER = 2;
+
+    /** The score is exact. */
+    public static final int EXACT = 3;
+
+    /** Entries per bucket. */
+    private static final int BUCKET = 4;
+
+    /** Longs per entry. */
+    private static final int ENTRY = 2;
+
+    /** Bytes per entry. */
+    private static final int ENTRY_BYTES = ENTRY * Long.BYTES;
+
+    /** Number of distinct ages before they wrap around. */
+    private static final int AGES = 64;
+
+    /** How many plies of depth one search of age is worth. */
+    private static final int AGE_WEIGHT = 8;
+
+    /** Largest depth that can be stored. */
+    public static final int MAX_DEPTH = 255;
+
+    /** Entries: {hash ^ data, data} pairs. */
+    private final long[] table;
+
+    /** Mask from a hash to the first long of its bucket. */
+    private final int mask;
+
+    /** Age of the current search. */
+    private int generation;
+
+    /**
+     * Create a table of at most the given size.
+     *
+     * The number of buckets is rounded down to a power of two.
+     *
+     * @param megabytes size of the table in MB
+     */
+    public TranspositionTable(final int megabytes) {
+        if (megabytes < 1) {
+            throw new IllegalArgumentException("Bad table size: " + megabytes);
+        }
+        long buckets = ((long) megabytes << 20) / (ENTRY_BYTES * BUCKET);
+        buckets = Long.highestOneBit(buckets);
+        long longs = buckets * BUCKET * ENTRY;
+        if (longs > Integer.MAX_VALUE - 8) {
+            longs = Integer.highestOneBit(Integer.MAX_VALUE - 8);
+        }
+        table = new long[(int) longs];
+        mask = table.length - BUCKET * ENTRY;
+    }
+
+    /**
+     * Get the size of the table.
+     *
+     * @return size in bytes
+     */
+    public long bytes() {
+        return (long) table.length * Long.BYTES;
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        generation = 0;
+    }
+
+    /**
+     * Start a new search, making the entries already stored older.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & (AGES - 1);
+    }
+
+    /**
+     * Look up a position.
+     *
+     * @param hash position hash
+     * @return     the entry's data, or 0 if the position is not stored
+     */
+    public long probe(final long hash) {
+        int base = (int) hash & mask;
+        for (int i = base; i < base + BUCKET * ENTRY; i += ENTRY) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == hash && bound(data) != NONE) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store the result of searching a position.
+     *
+     * @param hash  position hash
+     * @param move  best move found, or IntMove.NONE
+     * @param score score of the position
+     * @param depth depth searched
+     * @param bound UPPER, LOWER or EXACT
+     */
+    public void store(final long hash, final int move, final int score,
+                      final int depth, final int bound) {
+        int base = (int) hash & mask;
+        int victim = base;
+        int worst = Integer.MAX_VALUE;
+        for (int i = base; i < base + BUCKET * ENTRY; i += ENTRY) {
+            long old = table[i + 1];
+            if ((table[i] ^ old) == hash && bound(old) != NONE) {
+                /* same position: keep its move if this result has none,
+                 * and a deeper bound from the current search */
+                if (bound != EXACT && age(old) == generation &&
+                    depth(old) > depth + 2) {
+
+                    return;
+                }
+                int best = (move == 0) ? move(old) : move;
+                write(i, hash, pack(best, score, depth, bound));
+                return;
+            }
+            int value = (bound(old) == NONE) ? Integer.MIN_VALUE
+                : depth(old) - AGE_WEIGHT * ((generation - age(old)) & (AGES - 1));
+            if (value < worst) {
+                worst = value;
+                victim = i;
+            }
+        }
+        write(victim, hash, pack(move, score, depth, bound));
+    }
+
+    /**
+     * Estimate how full the table is from a sample of entries stored
+     * by the current search.
+     *
+     * @return entries in use per thousand
+     */
+    public int hashfull() {
+        int used = 0;
+        int sample = Math.min(1000, table.length / ENTRY);
+        for (int i = 0; i < sample; i++) {
+            long data = table[i * ENTRY + 1];
+            if (bound(data) != NONE && age(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    /**
+     * Write an entry.
+     *
+     * @param index index of the entry's first long
+     * @param hash  position hash
+     * @param data  packed entry data
+     */
+    private void write(final int index, final long hash, final long data) {
+        table[index] = hash ^ data;
+        table[index + 1] = data;
+    }
+
+    /**
+     * Pack the fields of an entry.
+     *
+     * @param move  best move
+     * @param score score, which must fit in a short
+     * @param depth depth, clamped to 0 .. MAX_DEPTH
+     * @param bound bound type
+     * @return      the packed data
+     */
+    private long pack(final int move, final int score, final int depth,
+                      final int bound) {
+        int d = Math.max(0, Math.min(MAX_DEPTH, depth));
+        return (move & 0xFFFFL)
+            | ((score & 0xFFFFL) << 16)
+            | ((long) d << 32)
+            | ((long) bound << 40)
+            | ((long) generation << 42);
+    }
+
+    /**
+     * Best move of an entry.
+     *
+     * @param data entry data from probe()
+     * @return     encoded move, or IntMove.NONE
+     */
+    public static int move(final long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * Score of an entry.
+     *
+     * @param data entry data from probe()
+     * @return     the score
+     */
+    public static int score(final long data) {
+        return (short) (data >>> 16);
+    }
+
+    /**
+     * Depth of an entry.
+     *
+     * @param data entry data from probe()
+     * @return     the depth searched
+     */
+    public static int depth(final long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    /**
+     * Bound type of an entry.
+     *
+     * @param data entry data from probe()
+     * @return     UPPER, LOWER, EXACT, or NONE for no entry
+     */
+    public static int bound(final long data) {
+        return (int) (data >>> 40) & 3;
+    }
+
+    /**
+     * Age of an entry.
+     *
+     * @param data entry data
+     * @return     the search generation that stored it
+     */
+    private static int age(final long data) {
+        return (int) (data >>> 42) & (AGES - 1);
+    }
+}
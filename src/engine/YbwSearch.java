@@ -0,0 +1,710 @@
+package src.engine;
+
+import src.Board;
+import src.IntMove;
+import src.IntMoveList;
+import src.MoveStack;
+import src.Piece;
+
+import java.io.Serial;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel search by Young Brothers Wait on a ForkJoinPool.
+ *
+ * In each node far enough from the horizon, the first move (the
+ * eldest brother) is searched alone. Only once it has set a bound are
+ * the other moves (the younger brothers) forked as tasks, which search
+ * in parallel with a null window around the best score so far and
+ * re-search with the full window if they beat it. The moves of a node
+ * share a SplitPoint: a brother that refutes the node sets its cutoff
+ * flag, and every task below the split point polls the flags of its
+ * split points, so brothers still in flight are abandoned. Nodes less
+ * than SPLIT_DEPTH from the horizon are searched by a sequential
+ * Search, and the split nodes use its null move pruning and late move
+ * reductions too, under the same switches, so that the node counts of
+ * the two are comparable.
+ *
+ * Tasks do not copy boards. Each one takes a Context from a pool,
+ * which holds a copy of the root position along with its own Search,
+ * move lists and ordering, brings the copy to its position by playing
+ * the moves from the root and takes them back when it is done.
+ */
+public final class YbwSearch {
+
+    /** Smallest remaining depth at which a node's moves are split. */
+    private static final int SPLIT_DEPTH = 4;
+
+    /** The position to search, which is never changed. */
+    private final Board root;
+
+    /** Table shared by all tasks. */
+    private final TranspositionTable table;
+
+    /** Pool running the tasks. */
+    private final ForkJoinPool pool;
+
+    /** Contexts not in use. */
+    private final ConcurrentLinkedQueue<Context> idle =
+        new ConcurrentLinkedQueue<>();
+
+    /** Every context created, for the node count. */
+    private final ConcurrentLinkedQueue<Context> contexts =
+        new ConcurrentLinkedQueue<>();
+
+    /** Positions visited by the parallel part of the tree. */
+    private final LongAdder splitNodes = new LongAdder();
+
+    /** Set to abandon the search. */
+    private volatile boolean stopped;
+
+    /** System.nanoTime() at which to stop, or Long.MAX_VALUE. */
+    private long deadline;
+
+    /** Best move of the deepest finished iteration. */
+    private int bestMove;
+
+    /** Score of the deepest finished iteration. */
+    private int bestScore;
+
+    /** Depth of the deepest finished iteration. */
+    private int completedDepth;
+
+    /** Best root move of the current iteration, once it is finished. */
+    private int rootMove;
+
+    /** Network the tasks evaluate with, or null for Evaluation. */
+    private Network network;
+
+    /** Whether the tasks evaluate with MobilityEvaluation. */
+    private boolean mobility;
+
+    /** Whether null move pruning is used. */
+    private boolean nullMove = true;
+
+    /** Whether late move reductions are used. */
+    private boolean reductions = true;
+
+    /** Whether futility pruning is used near the horizon. */
+    private boolean futility = true;
+
+    /**
+     * Create a parallel search of a position.
+     *
+     * @param position the board, which must not change while the
+     *                 search runs
+     * @param tt       transposition table shared by all tasks
+     * @param workers  pool to run the tasks in
+     */
+    public YbwSearch(final Board position, final TranspositionTable tt,
+                     final ForkJoinPool workers) {
+        root = position;
+        table = tt;
+        pool = workers;
+    }
+
+    /**
+     * Switch null move pruning on or off, in the split nodes and the
+     * sequential searches below them. Not to be called while running.
+     *
+     * @param enabled true to use it
+     */
+    public void setNullMove(final boolean enabled) {
+        nullMove = enabled;
+        for (Context ctx : contexts) {
+            ctx.search.setNullMove(enabled);
+        }
+    }
+
+    /**
+     * Switch late move reductions on or off, in the split nodes and the
+     * sequential searches below them. Not to be called while running.
+     *
+     * @param enabled true to use them
+     */
+    public void setReductions(final boolean enabled) {
+        reductions = enabled;
+        for (Context ctx : contexts) {
+            ctx.search.setReductions(enabled);
+        }
+    }
+
+    /**
+     * Switch futility pruning on or off. It only applies near the
+     * horizon, so only in the sequential searches. Not to be called
+     * while running.
+     *
+     * @param enabled true to use it
+     */
+    public void setFutility(final boolean enabled) {
+        futility = enabled;
+        for (Context ctx : contexts) {
+            ctx.search.setFutility(enabled);
+        }
+    }
+
+    /**
+     * Switch the mobility terms on or off in every task. Not to be
+     * called while running.
+     *
+     * @param enabled true to evaluate with MobilityEvaluation
+     */
+    public void setMobility(final boolean enabled) {
+        mobility = enabled;
+        for (Context ctx : contexts) {
+            ctx.search.setMobility(enabled);
+        }
+    }
+
+    /**
+     * Evaluate positions with a network rather than with Evaluation.
+     * Each task's copy of the position is followed, not the board
+     * given to the constructor. Not to be called while running.
+     *
+     * @param net the network, or null for Evaluation
+     */
+    public void setNetwork(final Network net) {
+        network = net;
+        for (Context ctx : contexts) {
+            ctx.search.setNetwork(net);
+        }
+    }
+
+    /**
+     * Search the position for the side to move.
+     *
+     * @param maxDepth deepest iteration, at most Search.MAX_DEPTH
+     * @param millis   time budget in milliseconds, or 0 for none
+     * @return         best move found, or IntMove.NONE if there is none
+     */
+    public int run(final int maxDepth, final long millis) {
+        if (maxDepth < 1 || maxDepth > Search.MAX_DEPTH) {
+            throw new IllegalArgumentException("Bad depth: " + maxDepth);
+        }
+        stopped = false;
+        deadline = (millis > 0) ? System.nanoTime() + millis * 1000000L
+                                : Long.MAX_VALUE;
+        bestMove = IntMove.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+
+        IntMoveList moves = new IntMoveList();
+        root.legalMoves(root.sideToMove(), moves);
+        if (moves.isEmpty()) {
+            return IntMove.NONE;
+        }
+        bestMove = moves.get(0);
+
+        int score = 0;
+        for (int depth = 1; depth <= maxDepth && !stopped; depth++) {
+            score = aspiration(depth, score);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootMove;
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= Search.MATE_BOUND) {
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Search one iteration, starting with a narrow window around the
+     * previous score and widening it until the score falls inside.
+     *
+     * @param depth iteration depth
+     * @param guess score of the previous iteration
+     * @return      score of this iteration
+     */
+    private int aspiration(final int depth, final int guess) {
+        int delta = Search.ASPIRATION;
+        int alpha = -Search.INFINITY;
+        int beta = Search.INFINITY;
+        if (depth >= Search.ASPIRATION_DEPTH) {
+            alpha = Math.max(guess - delta, -Search.INFINITY);
+            beta = Math.min(guess + delta, Search.INFINITY);
+        }
+        while (true) {
+            int a = alpha;
+            int b = beta;
+            int score = pool.invoke(ForkJoinTask.adapt(() -> {
+                Context ctx = acquire();
+                try {
+                    return node(ctx, null, depth, 0, a, b, false);
+                } finally {
+                    idle.add(ctx);
+                }
+            }));
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - delta, -Search.INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(score + delta, Search.INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Negamax search of a context's position, splitting its moves
+     * between tasks if far enough from the horizon.
+     *
+     * @param ctx   context holding the position
+     * @param sp    split point the node is searched under, or null
+     * @param depth remaining depth
+     * @param ply   distance from the root
+     * @param alpha lower bound of the window
+     * @param beta  upper bound of the window
+     * @param nullOk whether a null move may be tried
+     * @return      score for the side to move, meaningless if the node
+     *              was cancelled
+     */
+    private int node(final Context ctx, final SplitPoint sp, final int depth,
+                     final int ply, final int alpha, final int beta,
+                     final boolean nullOk) {
+        if (ply > 0 && depth < SPLIT_DEPTH) {
+            ctx.within = sp;
+            int score = ctx.search.searchNode(depth, ply, alpha, beta, nullOk,
+                                              deadline);
+            if (ctx.search.isStopped() && System.nanoTime() > deadline) {
+                stopped = true;
+            }
+            return score;
+        }
+        if (System.nanoTime() > deadline) {
+            stopped = true;
+        }
+        if (cancelled(sp)) {
+            return 0;
+        }
+        splitNodes.increment();
+        Board board = ctx.board;
+        long hash = board.hash();
+        ctx.search.trace(ply, hash);
+        if (ply > 0 && ctx.search.repeated(ply)) {
+            return 0;
+        }
+
+        boolean pv = beta - alpha > 1;
+        long entry = table.probe(hash);
+        int hashMove = TranspositionTable.move(entry);
+        if (entry != 0 && ply > 0 && !pv &&
+            TranspositionTable.depth(entry) >= depth) {
+
+            int stored = Search.fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT ||
+                (bound == TranspositionTable.LOWER && stored >= beta) ||
+                (bound == TranspositionTable.UPPER && stored <= alpha)) {
+
+                return stored;
+            }
+        }
+
+        Piece.Side side = board.sideToMove();
+        boolean inCheck = board.check(side);
+        if (nullOk && ctx.search.usesNullMove() && !pv && !inCheck &&
+            Math.abs(beta) < Search.MATE_BOUND &&
+            Search.hasPieces(board, side) && ctx.search.evaluate() >= beta) {
+
+            ctx.line[ply] = IntMove.NONE;
+            board.makeNullMove();
+            int score = -node(ctx, sp, depth - 1 - Search.NULL_MOVE_REDUCTION,
+                              ply + 1, -beta, -beta + 1, false);
+            board.undoNullMove();
+            if (cancelled(sp)) {
+                return 0;
+            }
+            if (score >= beta) {
+                return (score >= Search.MATE_BOUND) ? beta : score;
+            }
+        }
+
+        IntMoveList moves = ctx.stack.get(ply);
+        board.legalMoves(side, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -Search.MATE + ply : 0;
+        }
+        ctx.order.score(board, moves, ply, (ply == 0) ? bestMove : hashMove);
+
+        /* the eldest brother sets the bound the others are searched with */
+        int eldest = ctx.order.next(moves, ply, 0);
+        ctx.line[ply] = eldest;
+        board.make(eldest);
+        int best = -node(ctx, sp, depth - 1, ply + 1, -beta, -alpha, true);
+        board.unmake();
+        if (cancelled(sp)) {
+            return 0;
+        }
+        int bestLocal = eldest;
+        if (best >= beta) {
+            if (!MoveOrder.isTactical(board, eldest)) {
+                ctx.order.cutoff(board, eldest, ply, depth);
+            }
+        } else if (moves.size() > 1) {
+            SplitPoint point = new SplitPoint(sp, Math.max(alpha, best), beta,
+                                              best, eldest);
+            Brother[] brothers = new Brother[moves.size() - 1];
+            for (int i = 1; i < moves.size(); i++) {
+                int move = ctx.order.next(moves, ply, i);
+                int[] line = Arrays.copyOf(ctx.line, ply + 1);
+                line[ply] = move;
+                boolean quiet = !MoveOrder.isTactical(board, move);
+                int r = (ctx.search.usesReductions() &&
+                         depth >= Search.LMR_DEPTH && i >= Search.LMR_MOVES &&
+                         !inCheck && quiet)
+                    ? Search.reduction(depth, i) : 0;
+                brothers[i - 1] = new Brother(point, line, depth - 1, r, quiet);
+            }
+            ForkJoinTask.invokeAll(brothers);
+            if (cancelled(sp)) {
+                return 0;
+            }
+            best = point.best();
+            bestLocal = point.move();
+        }
+        if (ply == 0 && best > alpha) {
+            rootMove = bestLocal;
+        }
+
+        int bound = (best >= beta) ? TranspositionTable.LOWER
+            : (best > alpha) ? TranspositionTable.EXACT
+            : TranspositionTable.UPPER;
+        table.store(hash, bestLocal, Search.toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Determine if a node should be abandoned.
+     *
+     * @param sp split point the node is searched under, or null
+     * @return   true if the search was stopped or a split point above
+     *           the node was cut off
+     */
+    private boolean cancelled(final SplitPoint sp) {
+        return stopped || (sp != null && sp.cancelled());
+    }
+
+    /**
+     * Take an idle context, or create one.
+     *
+     * @return a context whose board is at the root position
+     */
+    private Context acquire() {
+        Context ctx = idle.poll();
+        if (ctx == null) {
+            ctx = new Context();
+            contexts.add(ctx);
+        }
+        return ctx;
+    }
+
+    /**
+     * Abandon the search as soon as possible. May be called from any
+     * thread.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Get the best move of the last run().
+     *
+     * @return encoded move, or IntMove.NONE
+     */
+    public int bestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Get the score of the deepest finished iteration.
+     *
+     * @return score in centipawns for the side to move
+     */
+    public int score() {
+        return bestScore;
+    }
+
+    /**
+     * Get the depth of the deepest finished iteration.
+     *
+     * @return depth in plies
+     */
+    public int depth() {
+        return completedDepth;
+    }
+
+    /**
+     * Get the number of positions visited by all tasks so far.
+     *
+     * @return node count
+     */
+    public long nodes() {
+        long total = splitNodes.sum();
+        for (Context ctx : contexts) {
+            total += ctx.search.nodes();
+        }
+        return total;
+    }
+
+    /**
+     * The younger brothers of a node share one of these.
+     */
+    private static final class SplitPoint {
+
+        /** Split point of the node's own node, or null. */
+        private final SplitPoint parent;
+
+        /** Upper bound of the node's window. */
+        private final int beta;
+
+        /** Lower bound of the window, raised as brothers finish. */
+        private int alpha;
+
+        /** Best score so far. */
+        private int best;
+
+        /** Move with the best score. */
+        private int move;
+
+        /** Set when a brother has refuted the node. */
+        private volatile boolean cutoff;
+
+        /**
+         * Create a split point once the eldest brother is done.
+         *
+         * @param above     split point of the node, or null
+         * @param lower     lower bound of the window
+         * @param upper     upper bound of the window
+         * @param score     the eldest brother's score
+         * @param firstMove the eldest brother
+         */
+        SplitPoint(final SplitPoint above, final int lower, final int upper,
+                   final int score, final int firstMove) {
+            parent = above;
+            alpha = lower;
+            beta = upper;
+            best = score;
+            move = firstMove;
+        }
+
+        /**
+         * Get the current lower bound of the window.
+         *
+         * @return alpha
+         */
+        synchronized int alpha() {
+            return alpha;
+        }
+
+        /**
+         * Get the best score.
+         *
+         * @return best score of the brothers so far
+         */
+        synchronized int best() {
+            return best;
+        }
+
+        /**
+         * Get the best move.
+         *
+         * @return move with the best score so far
+         */
+        synchronized int move() {
+            return move;
+        }
+
+        /**
+         * Record a brother's result, cutting the node off if it fails
+         * high.
+         *
+         * @param brother the brother's move
+         * @param score   its score
+         */
+        synchronized void update(final int brother, final int score) {
+            if (score > best) {
+                best = score;
+                move = brother;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        cutoff = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Determine if this split point or one above it was cut off.
+         *
+         * @return true if the tasks under it are wasted
+         */
+        boolean cancelled() {
+            for (SplitPoint p = this; p != null; p = p.parent) {
+                if (p.cutoff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Task searching one younger brother.
+     */
+    private final class Brother extends RecursiveAction {
+
+        @Serial
+        private static final long serialVersionUID = 5107231938224615311L;
+
+        /** Split point of the node the move belongs to. */
+        private final SplitPoint point;
+
+        /** Moves from the root, ending with this brother. */
+        private final int[] line;
+
+        /** Remaining depth after the move. */
+        private final int depth;
+
+        /** Late move reduction, unless the move gives check. */
+        private final int reduction;
+
+        /** Whether the move neither captures nor promotes. */
+        private final boolean quiet;
+
+        /**
+         * Create a task.
+         *
+         * @param sp    split point of the node
+         * @param moves moves from the root, ending with the brother
+         * @param left  remaining depth after the move
+         * @param r     plies to reduce the first search by
+         * @param calm  whether the move neither captures nor promotes
+         */
+        Brother(final SplitPoint sp, final int[] moves, final int left,
+                final int r, final boolean calm) {
+            point = sp;
+            line = moves;
+            depth = left;
+            reduction = r;
+            quiet = calm;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled(point)) {
+                return;
+            }
+            int ply = line.length;
+            Context ctx = acquire();
+            try {
+                ctx.enter(line);
+                int r = ctx.board.check(ctx.board.sideToMove()) ? 0 : reduction;
+                int a = point.alpha();
+                int score = -node(ctx, point, depth - r, ply, -a - 1, -a, true);
+                if (r > 0 && !cancelled(point) && score > a) {
+                    score = -node(ctx, point, depth, ply, -a - 1, -a, true);
+                }
+                if (!cancelled(point) && score > a && score < point.beta) {
+                    a = Math.max(a, point.alpha());
+                    score = -node(ctx, point, depth, ply, -point.beta, -a, true);
+                }
+                if (!cancelled(point)) {
+                    int move = line[ply - 1];
+                    point.update(move, score);
+                    if (quiet && score >= point.beta) {
+                        /* a refutation: record it from the node's side */
+                        ctx.board.unmake();
+                        ctx.order.cutoff(ctx.board, move, ply - 1, depth + 1);
+                        ctx.board.make(move);
+                    }
+                }
+            } finally {
+                ctx.leave(ply);
+                idle.add(ctx);
+            }
+        }
+    }
+
+    /**
+     * Everything a task needs to search on its own.
+     */
+    private final class Context {
+
+        /** Copy of the root position, moved to the task's position. */
+        private final Board board = root.copy();
+
+        /** Sequential search of the nodes near the horizon. */
+        private final Search search = new Search(board, table);
+
+        /** Move lists, one per ply. */
+        private final MoveStack stack = new MoveStack();
+
+        /** Move ordering of the split nodes. */
+        private final MoveOrder order = new MoveOrder();
+
+        /** Moves from the root to the current node. */
+        private final int[] line = new int[MoveStack.MAX_PLY];
+
+        /** Split point the sequential search runs under, or null. */
+        private SplitPoint within;
+
+        /**
+         * Create a context at the root position.
+         */
+        Context() {
+            search.setAbort(() -> cancelled(within));
+            search.rememberGame();
+            search.setNullMove(nullMove);
+            search.setReductions(reductions);
+            search.setFutility(futility);
+            search.setMobility(mobility);
+            search.setNetwork(network);
+        }
+
+        /**
+         * Play moves from the root, recording the positions passed.
+         *
+         * @param moves moves from the root, IntMove.NONE for a null move
+         */
+        void enter(final int[] moves) {
+            for (int i = 0; i < moves.length; i++) {
+                search.trace(i, board.hash());
+                if (moves[i] == IntMove.NONE) {
+                    board.makeNullMove();
+                } else {
+                    board.make(moves[i]);
+                }
+                line[i] = moves[i];
+            }
+        }
+
+        /**
+         * Take back the moves played by enter().
+         *
+         * @param plies number of moves
+         */
+        void leave(final int plies) {
+            for (int i = plies - 1; i >= 0; i--) {
+                if (line[i] == IntMove.NONE) {
+                    board.undoNullMove();
+                } else {
+                    board.unmake();
+                }
+            }
+        }
+    }
+}
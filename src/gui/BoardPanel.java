@@ -1,13 +1,16 @@
 package src.gui;
 
 import src.Board;
+import src.BoardSnapshot;
 import src.GameEvent;
+import src.IntMove;
 import src.GameListener;
 import src.Move;
 import src.MoveList;
 import src.Piece;
 import src.Player;
 import src.Position;
+import src.pieces.PieceFactory;
 
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
@@ -56,9 +59,15 @@ public class BoardPanel extends JComponent
                                     HIGHLIGHT_PADDING * 4);
 
 
-    /** The board being displayed. */
+    /** The board the local player moves on during its turn. */
     private Board board;
 
+    /** The picture of the board being displayed. */
+    private volatile BoardSnapshot view;
+
+    /** Piece images, indexed by Piece.index(side, type). */
+    private final Image[] images = new Image[Piece.TYPES * 2];
+
     /** Indicate flipped status. */
     private boolean flipped = true;
 
@@ -117,6 +126,7 @@ public class BoardPanel extends JComponent
      */
     public BoardPanel() {
         board = new Board();
+        view = board.snapshot();
         updateSize();
         addMouseListener(this);
     }
@@ -144,6 +154,7 @@ public class BoardPanel extends JComponent
      */
     public final void setBoard(final Board b) {
         board = b;
+        view = b.snapshot();
         updateSize();
         repaint();
     }
@@ -203,11 +214,12 @@ public class BoardPanel extends JComponent
         }
 
         /* Place the pieces */
+        BoardSnapshot shown = view;
         for (int y = 0; y < h; y++) {
             for (int x = 0; x < w; x++) {
-                Piece p = board.getPiece(new Position(x, y));
-                if (p != null) {
-                    Image tile = p.getImage();
+                int p = shown.piece(Position.of(x, y).getSquare());
+                if (p >= 0) {
+                    Image tile = image(p);
                     int yy = y;
                     if (flipped) {
                         yy = 7 - y;
@@ -219,11 +231,10 @@ public class BoardPanel extends JComponent
         }
 
         /* Draw last move */
-        Move last = board.last();
-        if (last != null) {
+        if (shown.lastOrigin() != null) {
             g.setColor(LAST);
-            highlight(g, last.getOrigin());
-            highlight(g, last.getDest());
+            highlight(g, shown.lastOrigin());
+            highlight(g, shown.lastDest());
         }
 
         /* Draw selected square */
@@ -241,6 +252,23 @@ public class BoardPanel extends JComponent
         }
     }
 
+    /**
+     * Get the image of a piece, loading it on first use.
+     *
+     * @param index piece index, Piece.index(side, type)
+     * @return      the piece's image
+     */
+    private Image image(final int index) {
+        if (images[index] == null) {
+            Piece.Side s = (index < Piece.TYPES)
+                           ? Piece.Side.WHITE : Piece.Side.BLACK;
+            int type = index - Piece.index(s, 0);
+            images[index] =
+                PieceFactory.create(IntMove.name(type), s).getImage();
+        }
+        return images[index];
+    }
+
     /**
      * Highlight the given tile on the board using the current color.
      *
@@ -325,7 +353,7 @@ public class BoardPanel extends JComponent
         if (flipped) {
             y = 7 - y;
         }
-        return new Position(x, y);
+        return Position.of(x, y);
     }
 
     @Override
@@ -333,6 +361,7 @@ public class BoardPanel extends JComponent
                                final Piece.Side currentSide) {
         latch = new CountDownLatch(1);
         board = turnBoard;
+        view = turnBoard.snapshot();
         side = currentSide;
         repaint();
         mode = Mode.PLAYER;
@@ -346,10 +375,16 @@ public class BoardPanel extends JComponent
 
     @Override
     public final void gameEvent(final GameEvent e) {
-        board = e.getGame().getBoard();
-        if (e.getType() != GameEvent.STATUS) {
-            repaint();
+        if (e.getType() == GameEvent.STATUS) {
+            return;
         }
+        BoardSnapshot latest = e.getGame().getSnapshot();
+        if (latest.version() == view.version()) {
+            /* nothing moved since the last repaint */
+            return;
+        }
+        view = latest;
+        repaint();
     }
 
 
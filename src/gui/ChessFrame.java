@@ -58,6 +58,7 @@ public class ChessFrame extends JFrame
 
                     game = new Game(loadedGame, this);
                     display.setBoard(loadedGame.getBoard());
+                    stat.setSnapshot(game.getSnapshot());
                     display.invalidate();
                     setSize(getPreferredSize());
 
@@ -94,7 +95,7 @@ public class ChessFrame extends JFrame
         setVisible(true);
         pack();
 
-        stat = new Info(game.getBoard());
+        stat = new Info(game.getSnapshot());
 
         JButton mosse = new JButton("Mosse");
         mosse.setFocusPainted(false);
@@ -121,6 +122,9 @@ public class ChessFrame extends JFrame
             game = new Game(new Board(), this);
             Board board = game.getBoard();
             display.setBoard(board);
+            if (stat != null) {
+                stat.setSnapshot(game.getSnapshot());
+            }
             display.invalidate();
             setSize(getPreferredSize());
 
@@ -159,7 +163,13 @@ public class ChessFrame extends JFrame
         }
     }
 
-    public final void gameEvent(final GameEvent e) {}
+    public final void gameEvent(final GameEvent e) {
+        if (e.getType() == GameEvent.STATUS || stat == null) {
+            return;
+        }
+        BoardSnapshot latest = e.getGame().getSnapshot();
+        SwingUtilities.invokeLater(() -> stat.update(latest));
+    }
 
     public void componentHidden(final ComponentEvent e) {}
 
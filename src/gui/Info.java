@@ -5,26 +5,26 @@ import src.*;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ComponentEvent;
-import java.util.Iterator;
-import java.util.Observable;
-import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumnModel;
 public class Info extends JPanel {
-    private final MoveList moveList;
+    private static final String[] COLUMN_NAMES = {"Move", "Origin", "Destination"};
 
-    public Info(Board board) {
-        this.moveList = board.allMoves(Piece.Side.WHITE, false);
+    private final DefaultTableModel model =
+        new DefaultTableModel(COLUMN_NAMES, 0);
+
+    /** The snapshot whose moves are listed. */
+    private BoardSnapshot shown;
+
+    public Info(BoardSnapshot snapshot) {
         initUI();
+        setSnapshot(snapshot);
     }
 
     private void initUI() {
         setLayout(new BorderLayout());
 
-        String[] columnNames = {"Move", "Origin", "Destination"};
-
-        Object[][] data = createTableData();
-
-        JTable table = new JTable(data, columnNames);
+        JTable table = new JTable(model);
 
         // Aggiungi la tabella a uno JScrollPane
         JScrollPane scrollPane = new JScrollPane(table);
@@ -32,25 +32,37 @@ public class Info extends JPanel {
         add(scrollPane, BorderLayout.CENTER);
     }
 
-    private Object[][] createTableData() {
-        int moveCount = moveList.size();
-        Object[][] data = new Object[moveCount][3];
-
-        Iterator<Move> moveIterator = moveList.iterator();
-
-        int rowIndex = 0;
-        while (moveIterator.hasNext()) {
-            Move move = moveIterator.next();
-
-            data[rowIndex][0] = (rowIndex + 1);
-            data[rowIndex][1] = move.getOrigin();
-            data[rowIndex][2] = move.getDest();
-
-            rowIndex++;
+    /**
+     * List the moves of a newer snapshot of the same board. Nothing is
+     * done if the version has not changed. Call from the EDT.
+     *
+     * @param snapshot the latest snapshot
+     */
+    public void update(final BoardSnapshot snapshot) {
+        if (snapshot.version() != shown.version()) {
+            setSnapshot(snapshot);
         }
+    }
 
-        return data;
+    /**
+     * List the legal moves of the side to move in a snapshot, which
+     * may belong to another board. Call from the EDT.
+     *
+     * @param snapshot the snapshot to be listed
+     */
+    public void setSnapshot(final BoardSnapshot snapshot) {
+        shown = snapshot;
+        model.setRowCount(0);
+        for (int i = 0; i < snapshot.legalMoveCount(); i++) {
+            int move = snapshot.legalMove(i);
+            model.addRow(new Object[] {
+                i + 1,
+                Bitboards.position(IntMove.from(move)),
+                Bitboards.position(IntMove.to(move))
+            });
+        }
     }
+
     public void componentShown(ComponentEvent e) {
         // Imposta la larghezza preferita delle colonne dopo che la tabella è stata visualizzata
         JTable table = (JTable)((JScrollPane)getComponent(0)).getViewport().getView();
@@ -60,4 +72,3 @@ public class Info extends JPanel {
         columnModel.getColumn(2).setPreferredWidth(80);  // Larghezza della colonna "Destination"
     }
 }
-
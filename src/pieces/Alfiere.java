@@ -1,6 +1,7 @@
 package src.pieces;
 
-import src.Move;
+import src.Bitboards;
+import src.Board;
 import src.MoveList;
 import src.Piece;
 import src.Position;
@@ -20,7 +21,7 @@ public class Alfiere extends Piece {
      * @param side piece side
      */
     public Alfiere(final Side side) {
-        super(side, "Alfiere");
+        super(side, "Alfiere", ALFIERE);
     }
 
     @Override
@@ -39,64 +40,14 @@ public class Alfiere extends Piece {
      * @param list  list to be appended to
      * @return      the modified list
      */
-    public static final MoveList getMoves(final Piece p,
-                                          final MoveList list) {
-        /* Scan each direction and stop looking when we run into something. */
+    public static MoveList getMoves(final Piece p,
+                                    final MoveList list) {
+        /* One table lookup gives every square up to the first blocker. */
+        Board board = p.getBoard();
         Position home = p.getPosition();
-        int x = home.getX();
-        int y = home.getY();
-        while (x >= 0 && y >= 0) {
-            x--;
-            y--;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (x < 8 &&
-               y < 8) {
-
-            x++;
-            y++;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (x >= 0 && y < 8) {
-            x--;
-            y++;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (x < 8 && y >= 0) {
-            x++;
-            y--;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
+        long attacks = Bitboards.bishopAttacks(Bitboards.square(home),
+                                               board.occupancy());
+        list.addCaptures(home, attacks & ~board.occupancy(p.getSide()));
         return list;
     }
 }
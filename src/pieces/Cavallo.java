@@ -30,7 +30,7 @@ public class Cavallo extends Piece {
      * @param side piece owner
      */
     public Cavallo(final Side side) {
-        super(side, "Cavallo");
+        super(side, "Cavallo", CAVALLO);
     }
 
     @Override
@@ -52,14 +52,14 @@ public class Cavallo extends Piece {
     public static MoveList getMoves(final Piece p,
                                     final MoveList list) {
         Position pos = p.getPosition();
-        list.addCapture(new Move(pos, new Position(pos,  NEAR,  FAR)));
-        list.addCapture(new Move(pos, new Position(pos,  FAR,  NEAR)));
-        list.addCapture(new Move(pos, new Position(pos, -FAR,  NEAR)));
-        list.addCapture(new Move(pos, new Position(pos, -FAR, -NEAR)));
-        list.addCapture(new Move(pos, new Position(pos,  FAR, -NEAR)));
-        list.addCapture(new Move(pos, new Position(pos,  NEAR, -FAR)));
-        list.addCapture(new Move(pos, new Position(pos, -NEAR, -FAR)));
-        list.addCapture(new Move(pos, new Position(pos, -NEAR,  FAR)));
+        list.addCapture(new Move(pos, Position.of(pos,  NEAR,  FAR)));
+        list.addCapture(new Move(pos, Position.of(pos,  FAR,  NEAR)));
+        list.addCapture(new Move(pos, Position.of(pos, -FAR,  NEAR)));
+        list.addCapture(new Move(pos, Position.of(pos, -FAR, -NEAR)));
+        list.addCapture(new Move(pos, Position.of(pos,  FAR, -NEAR)));
+        list.addCapture(new Move(pos, Position.of(pos,  NEAR, -FAR)));
+        list.addCapture(new Move(pos, Position.of(pos, -NEAR, -FAR)));
+        list.addCapture(new Move(pos, Position.of(pos, -NEAR,  FAR)));
         return list;
     }
 }
@@ -21,7 +21,7 @@ public class Pedone extends Piece {
      * @param side piece owner
      */
     public Pedone(final Side side) {
-        super(side, "Pedone");
+        super(side, "Pedone", PEDONE);
     }
 
     @Override
@@ -31,26 +31,26 @@ public class Pedone extends Piece {
         Board board = getBoard();
 
         int dir = direction();
-        Position dest = new Position(pos, 0, dir);
+        Position dest = Position.of(pos, 0, dir);
         Move first = new Move(pos, dest);
         addUpgrade(first);
 
         if (list.addMove(first) && !moved()) {
-            list.addMove(new Move(pos, new Position(pos, 0, 2 * dir)));
+            list.addMove(new Move(pos, Position.of(pos, 0, 2 * dir)));
         }
 
-        Move captureLeft = new Move(pos, new Position(pos, -1, dir));
+        Move captureLeft = new Move(pos, Position.of(pos, -1, dir));
         addUpgrade(captureLeft);
         list.addCaptureOnly(captureLeft);
-        Move captureRight = new Move(pos, new Position(pos,  1, dir));
+        Move captureRight = new Move(pos, Position.of(pos,  1, dir));
         addUpgrade(captureRight);
         list.addCaptureOnly(captureRight);
 
         /* check for en passant */
         Move last = board.last();
         if (last != null) {
-            Position left = new Position(pos, -1, 0);
-            Position right = new Position(pos, 1, 0);
+            Position left = Position.of(pos, -1, 0);
+            Position right = Position.of(pos, 1, 0);
             Position lOrigin = last.getOrigin();
             Position lDest = last.getDest();
 
@@ -60,7 +60,7 @@ public class Pedone extends Piece {
                 (board.getPiece(left) instanceof Pedone)) {
 
                 /* en passant to the left */
-                Move passant = new Move(pos, new Position(pos, -1, dir));
+                Move passant = new Move(pos, Position.of(pos, -1, dir));
                 passant.setNext(new Move(left, null));
                 list.addMove(passant);
 
@@ -70,7 +70,7 @@ public class Pedone extends Piece {
                        (board.getPiece(right) instanceof Pedone)) {
 
                 /* en passant to the right */
-                Move passant = new Move(pos, new Position(pos, 1, dir));
+                Move passant = new Move(pos, Position.of(pos, 1, dir));
                 passant.setNext(new Move(right, null));
                 list.addMove(passant);
             }
@@ -21,6 +21,16 @@ public final class PieceFactory {
     public static Piece create(final String name, final Piece.Side side) {
         if ("Regina".equals(name)) {
             return new Regina(side);
+        } else if ("Torre".equals(name)) {
+            return new Torre(side);
+        } else if ("Alfiere".equals(name)) {
+            return new Alfiere(side);
+        } else if ("Cavallo".equals(name)) {
+            return new Cavallo(side);
+        } else if ("Pedone".equals(name)) {
+            return new Pedone(side);
+        } else if ("Re".equals(name)) {
+            return new Re(side);
         } else {
             /* Maybe throw an exception here? */
             return null;
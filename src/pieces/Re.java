@@ -1,5 +1,6 @@
 package src.pieces;
 
+import src.Bitboards;
 import src.Move;
 import src.MoveList;
 import src.Piece;
@@ -14,19 +15,13 @@ import src.Position;
 public class Re extends Piece {
 
 
-    /** List of enemy moves (cahced). */
-    private MoveList enemy;
-
-    /** Cache the check check. */
-    private Boolean inCheck;
-
     /**
      * Create a new king on the given side.
      *
      * @param side piece owner
      */
     public Re(final Side side) {
-        super(side, "Re");
+        super(side, "Re", RE);
     }
 
     @Override
@@ -36,14 +31,12 @@ public class Re extends Piece {
         for (int y = -1; y <= 1; y++) {
             for (int x = -1; x <= 1; x++) {
                 if (x != 0 || y != 0) {
-                    list.addCapture(new Move(pos, new Position(pos, x, y)));
+                    list.addCapture(new Move(pos, Position.of(pos, x, y)));
                 }
             }
         }
 
         /* check for castling */
-        enemy = null;
-        inCheck = null;
         if (check && !moved()) {
             Move left = castle(-1);
             if (left != null) {
@@ -66,6 +59,10 @@ public class Re extends Piece {
     private Move castle(final int dir) {
         int dist = 8 / 2 - 2;
         Position pos = getPosition();
+        if (pos.getX() != 8 / 2) {
+            /* an unmoved king off its home square was set up that way */
+            return null;
+        }
 
         int max;
         if (dir < 0) {
@@ -74,17 +71,17 @@ public class Re extends Piece {
             max = 7;
         }
 
-        Position rookPos = new Position(max, pos.getY());
+        Position rookPos = Position.of(max, pos.getY());
         Piece rook = getBoard().getPiece(rookPos);
         if (rook == null || rook.moved()) {
             return null;
         }
 
-        if (emptyRow(getPosition(), dir, max) && !inCheck()) {
+        if (emptyRow(getPosition(), dir, max) && safePath(dir)) {
             /* generate the move */
-            Position kpos = new Position(pos, dir * dist, 0);
+            Position kpos = Position.of(pos, dir * dist, 0);
             Move kingDest = new Move(pos, kpos);
-            Position rpos = new Position(pos, dir * dist - dir, 0);
+            Position rpos = Position.of(pos, dir * dist - dir, 0);
             Move rookDest = new Move(rookPos, rpos);
             kingDest.setNext(rookDest);
             return kingDest;
@@ -93,20 +90,18 @@ public class Re extends Piece {
     }
 
     /**
-     * Check for an empty, unthreatened castling row.
+     * Check for an empty castling row.
      *
      * @param start the starting position
      * @param dir direction to check
      * @param max maximum column for the board
-     * @return true if row is safe
+     * @return true if row is empty
      */
     private boolean emptyRow(final Position start, final int dir,
                              final int max) {
         for (int i = start.getX() + dir; i != max; i += dir) {
-            Position pos = new Position(i, start.getY());
-            if (getBoard().getPiece(pos) != null ||
-                enemyMoves().containsDest(pos)) {
-
+            Position pos = Position.of(i, start.getY());
+            if (getBoard().getPiece(pos) != null) {
                 return false;
             }
         }
@@ -114,28 +109,20 @@ public class Re extends Piece {
     }
 
     /**
-     * Cache of enemy moves.
+     * Check that the king is not in check and does not pass through or
+     * land on an attacked square.
      *
-     * @return list of enemy moves
-     */
-    private MoveList enemyMoves() {
-        if (enemy != null) {
-            return enemy;
-        }
-        enemy = getBoard().allMoves(opposite(getSide()), false);
-        return enemy;
-    }
-
-    /**
-     * Cache of check check.
-     *
-     * @return true if king is in check
+     * @param dir direction to check
+     * @return true if the king's path is safe
      */
-    private boolean inCheck() {
-        if (inCheck != null) {
-            return inCheck;
+    private boolean safePath(final int dir) {
+        Side enemy = opposite(getSide());
+        int sq = Bitboards.square(getPosition());
+        for (int i = 0; i <= 2; i++) {
+            if (getBoard().isAttacked(sq + i * dir, enemy)) {
+                return false;
+            }
         }
-        inCheck = getBoard().check(getSide());
-        return inCheck;
+        return true;
     }
 }
@@ -1,7 +1,10 @@
 package src.pieces;
 
+import src.Bitboards;
+import src.Board;
 import src.MoveList;
 import src.Piece;
+import src.Position;
 
 /**
  * The Chess queen.
@@ -17,15 +20,18 @@ public class Regina extends Piece {
      * @param side piece owner
      */
     public Regina(final Side side) {
-        super(side, "Regina");
+        super(side, "Regina", REGINA);
     }
 
     @Override
     public final MoveList getMoves(final boolean check) {
         MoveList list = new MoveList(getBoard(), check);
-        /* Take advantage of the Alfiere and Torre implementations. */
-        list = Torre.getMoves(this, list);
-        list = Alfiere.getMoves(this, list);
+        /* Rook and bishop lookups combined, as a single attack set. */
+        Board board = getBoard();
+        Position home = getPosition();
+        long attacks = Bitboards.queenAttacks(Bitboards.square(home),
+                                              board.occupancy());
+        list.addCaptures(home, attacks & ~board.occupancy(getSide()));
         return list;
     }
 }
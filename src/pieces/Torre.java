@@ -1,6 +1,7 @@
 package src.pieces;
 
-import src.Move;
+import src.Bitboards;
+import src.Board;
 import src.MoveList;
 import src.Piece;
 import src.Position;
@@ -19,7 +20,7 @@ public class Torre extends Piece {
      * @param side piece owner
      */
     public Torre(final Side side) {
-        super(side, "Torre");
+        super(side, "Torre", TORRE);
     }
 
     @Override
@@ -40,56 +41,12 @@ public class Torre extends Piece {
      */
     public static MoveList getMoves(final Piece p,
                                     final MoveList list) {
-        /* Scan each direction and stop looking when we run into something. */
+        /* One table lookup gives every square up to the first blocker. */
+        Board board = p.getBoard();
         Position home = p.getPosition();
-        int x = home.getX();
-        int y = home.getY();
-        while (x >= 0) {
-            x--;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (x < 8) {
-            x++;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (y >= 0) {
-            y--;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
-        x = home.getX();
-        y = home.getY();
-        while (y < 8) {
-            y++;
-            Position pos = new Position(x, y);
-            if (!list.addCapture(new Move(home, pos))) {
-                break;
-            }
-            if (!p.getBoard().isFree(pos)) {
-                break;
-            }
-        }
+        long attacks = Bitboards.rookAttacks(Bitboards.square(home),
+                                             board.occupancy());
+        list.addCaptures(home, attacks & ~board.occupancy(p.getSide()));
         return list;
     }
 }
@@ -0,0 +1,83 @@
+package src.engine;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels on SIMD lanes with the Vector API.
+ *
+ * The inputs are loaded as many 16 bit lanes as the CPU's preferred
+ * vector holds. For dot products they are widened to two vectors of
+ * 32 bit lanes, so that the products and their sums cannot overflow.
+ * The tail that does not fill a whole vector is done one element at a
+ * time.
+ *
+ * Needs the jdk.incubator.vector module, both to compile and to run,
+ * so it is kept out of the main source root: compile this root with
+ * "--add-modules jdk.incubator.vector" against the main classes.
+ */
+public final class VectorDot implements DotKernel {
+
+    /** 16 bit lanes of the preferred vector size. */
+    private static final VectorSpecies<Short> SHORTS =
+        ShortVector.SPECIES_PREFERRED;
+
+    /** 32 bit lanes of the same vector size, half as many. */
+    private static final VectorSpecies<Integer> INTS =
+        IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public int dot(final short[] a, final short[] b, final int length) {
+        IntVector sum = IntVector.zero(INTS);
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector va = ShortVector.fromArray(SHORTS, a, i);
+            ShortVector vb = ShortVector.fromArray(SHORTS, b, i);
+            for (int part = 0; part < 2; part++) {
+                IntVector wa = (IntVector) va.convertShape(VectorOperators.S2I,
+                                                           INTS, part);
+                IntVector wb = (IntVector) vb.convertShape(VectorOperators.S2I,
+                                                           INTS, part);
+                sum = sum.add(wa.mul(wb));
+            }
+        }
+        int total = sum.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            total += a[i] * b[i];
+        }
+        return total;
+    }
+
+    @Override
+    public void add(final short[] acc, final short[] values, final int offset,
+                    final int length) {
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i)
+                .add(ShortVector.fromArray(SHORTS, values, offset + i))
+                .intoArray(acc, i);
+        }
+        for (; i < length; i++) {
+            acc[i] += values[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(final short[] acc, final short[] values,
+                         final int offset, final int length) {
+        int bound = SHORTS.loopBound(length);
+        int i = 0;
+        for (; i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, acc, i)
+                .sub(ShortVector.fromArray(SHORTS, values, offset + i))
+                .intoArray(acc, i);
+        }
+        for (; i < length; i++) {
+            acc[i] -= values[offset + i];
+        }
+    }
+}